@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * JVM stand-in for the platform class, whose static initializer calls native methods that only
+ * exist on a device. android-all must come after this class on the classpath. Only the version
+ * read by the benchmarked code is provided; it defaults to the minimum SDK the plugin supports.
+ */
+public class Build {
+
+    public static class VERSION {
+
+        public static final int SDK_INT = Integer.getInteger("android.sdk", VERSION_CODES.M);
+    }
+
+    public static class VERSION_CODES {
+
+        public static final int M = 23;
+        public static final int N = 24;
+        public static final int P = 28;
+        public static final int R = 30;
+    }
+}
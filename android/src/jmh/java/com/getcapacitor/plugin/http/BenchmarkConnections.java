@@ -0,0 +1,68 @@
+package com.getcapacitor.plugin.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * In-memory connections, so benchmarks measure the plugin's own code rather than the network
+ */
+class BenchmarkConnections {
+
+    /**
+     * A response whose body is served from memory
+     */
+    static class Response implements ICapacitorHttpUrlConnection {
+
+        private final byte[] body;
+        private final String contentType;
+
+        Response(byte[] body, String contentType) {
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return null;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return "Content-Type".equalsIgnoreCase(name) ? contentType : null;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * A connection that discards the request body written to it
+     */
+    static class Request extends HttpURLConnection {
+
+        Request(URL url) {
+            super(url);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void connect() {}
+
+        @Override
+        public void disconnect() {}
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+}
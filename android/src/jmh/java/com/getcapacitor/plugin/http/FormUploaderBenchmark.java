@@ -0,0 +1,67 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generating multipart bodies with {@link FormUploader}, as image uploads do
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormUploaderBenchmark {
+
+    @Param({ "65536", "1048576", "4194304" })
+    int fileSize;
+
+    private URL url;
+    private File file;
+    private JSObject data;
+
+    @Setup
+    public void setup() throws Exception {
+        url = new URL("https://api.example.com/v1/photos");
+        file = File.createTempFile("form-uploader-benchmark", ".jpg");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+
+        data = new JSObject();
+        data.put("key", "photos/listing-42/front.jpg");
+        data.put("X-Image-Width", "1920");
+        data.put("X-Image-Height", "1080");
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void addFilePart() throws Exception {
+        FormUploader uploader = new FormUploader(new BenchmarkConnections.Request(url));
+        uploader.addFilePart("file", file, data);
+        uploader.finish();
+    }
+}
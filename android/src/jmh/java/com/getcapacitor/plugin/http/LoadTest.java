@@ -0,0 +1,379 @@
+package com.getcapacitor.plugin.http;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives {@link HttpRequestHandler#request}, {@link HttpRequestHandler#downloadFile} and the
+ * {@link UploadQueue} concurrently against a {@link LoopbackServer}, then reports throughput,
+ * tail latency and peak heap. Run with {@code ./gradlew loadTest -PloadTestArgs="..."}:
+ * <pre>
+ *   --scenario steady|flaky|slow-network|burst   preset, refined by the options below
+ *   --duration 30             seconds
+ *   --concurrency 16          workers, each running one operation at a time
+ *   --mix 70,20,10            weights of request, download and upload operations
+ *   --size 16384              bytes per response
+ *   --upload-size 262144      bytes per uploaded file
+ *   --latency 20 --jitter 10  server think time in milliseconds
+ *   --bandwidth 0             bytes per second per connection, 0 for unlimited
+ *   --body fixed|chunked|unknown
+ *   --reset-rate 0 --throttle-rate 0 --error-rate 0   fault probabilities between 0 and 1
+ *   --retry                   retry uploads with the plugin's retry policy
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String[] OPERATIONS = { "request", "download", "upload" };
+
+    private final LoopbackServer.Faults faults = new LoopbackServer.Faults();
+    private String scenario = "steady";
+    private int durationSeconds = 30;
+    private int concurrency = 16;
+    private int[] mix = { 70, 20, 10 };
+    private int size = 16 * 1024;
+    private int uploadSize = 256 * 1024;
+    private boolean retry = false;
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest();
+        test.parse(args);
+        test.run();
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        // The scenario is applied first so the other options refine it
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--scenario")) {
+                applyScenario(args[i + 1]);
+            }
+        }
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--scenario" -> i++;
+                case "--duration" -> durationSeconds = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--mix" -> mix = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--upload-size" -> uploadSize = Integer.parseInt(args[++i]);
+                case "--latency" -> faults.latencyMillis = Long.parseLong(args[++i]);
+                case "--jitter" -> faults.latencyJitterMillis = Long.parseLong(args[++i]);
+                case "--bandwidth" -> faults.bytesPerSecond = Long.parseLong(args[++i]);
+                case "--body" -> faults.bodyMode = LoopbackServer.BodyMode.valueOf(args[++i].toUpperCase(Locale.US).replace("UNKNOWN", "UNKNOWN_LENGTH"));
+                case "--reset-rate" -> faults.resetRate = Double.parseDouble(args[++i]);
+                case "--throttle-rate" -> faults.throttleRate = Double.parseDouble(args[++i]);
+                case "--error-rate" -> faults.serverErrorRate = Double.parseDouble(args[++i]);
+                case "--retry" -> retry = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i] + (value != null ? " " + value : ""));
+            }
+        }
+        if (mix.length != OPERATIONS.length) {
+            throw new IllegalArgumentException("--mix takes " + OPERATIONS.length + " weights: request,download,upload");
+        }
+    }
+
+    private void applyScenario(String name) {
+        scenario = name;
+        switch (name) {
+            case "steady" -> {
+                faults.latencyMillis = 20;
+                faults.latencyJitterMillis = 10;
+            }
+            case "flaky" -> {
+                faults.latencyMillis = 20;
+                faults.latencyJitterMillis = 30;
+                faults.resetRate = 0.02;
+                faults.throttleRate = 0.02;
+                faults.serverErrorRate = 0.05;
+                retry = true;
+            }
+            case "slow-network" -> {
+                faults.latencyMillis = 150;
+                faults.latencyJitterMillis = 100;
+                faults.bytesPerSecond = 256 * 1024;
+                faults.bodyMode = LoopbackServer.BodyMode.CHUNKED;
+            }
+            case "burst" -> {
+                concurrency = 64;
+                durationSeconds = 15;
+                faults.latencyMillis = 5;
+                faults.bodyMode = LoopbackServer.BodyMode.UNKNOWN_LENGTH;
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario " + name);
+        }
+    }
+
+    private void run() throws Exception {
+        File directory = Files.createTempDirectory("http-load-test").toFile();
+        File uploadFile = new File(directory, "upload.bin");
+        byte[] content = new byte[uploadSize];
+        new Random(42).nextBytes(content);
+        try (FileOutputStream out = new FileOutputStream(uploadFile)) {
+            out.write(content);
+        }
+        Context context = new ContextWrapper(null) {
+            @Override
+            public File getCacheDir() {
+                return directory;
+            }
+        };
+
+        try (LoopbackServer server = new LoopbackServer(faults)) {
+            System.out.printf(
+                Locale.US,
+                "Scenario %s: %d workers for %ds against %s%n  %s%n",
+                scenario,
+                concurrency,
+                durationSeconds,
+                server.getUrl("/"),
+                faults
+            );
+
+            HeapSampler heap = new HeapSampler();
+            heap.start();
+
+            Worker[] workers = new Worker[concurrency];
+            long deadline = System.nanoTime() + durationSeconds * 1_000_000_000L;
+            long start = System.nanoTime();
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new Worker(i, server, directory, uploadFile, context, deadline);
+                workers[i].start();
+            }
+            for (Worker worker : workers) {
+                worker.join();
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            heap.interrupt();
+
+            report(workers, elapsedSeconds, heap.peak.get());
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private void report(Worker[] workers, double elapsedSeconds, long peakHeap) {
+        System.out.printf(Locale.US, "%n%-9s %8s %8s %8s %8s %9s %8s %8s %8s %8s%n", "operation", "count", "ok", "http-err", "failed", "ops/s", "p50", "p90", "p99", "max (ms)");
+        Map<String, Integer> failures = new TreeMap<>();
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            Recorder merged = new Recorder();
+            for (Worker worker : workers) {
+                merged.addAll(worker.recorders[op]);
+                worker.recorders[op].failures.forEach((name, count) -> failures.merge(name, count, Integer::sum));
+            }
+            long[] latencies = Arrays.copyOf(merged.latencies, merged.count);
+            Arrays.sort(latencies);
+            System.out.printf(
+                Locale.US,
+                "%-9s %8d %8d %8d %8d %9.1f %8.1f %8.1f %8.1f %8.1f%n",
+                OPERATIONS[op],
+                merged.count,
+                merged.ok,
+                merged.httpErrors,
+                merged.failed,
+                merged.count / elapsedSeconds,
+                percentile(latencies, 0.5),
+                percentile(latencies, 0.9),
+                percentile(latencies, 0.99),
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1000.0 : 0
+            );
+        }
+        System.out.printf(Locale.US, "%nPeak heap: %.1f MB%n", peakHeap / (1024.0 * 1024.0));
+        if (!failures.isEmpty()) {
+            System.out.println("Failures: " + failures);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percentile) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+
+    /**
+     * Runs operations picked at random by the configured mix until the deadline
+     */
+    private class Worker extends Thread {
+
+        final Recorder[] recorders = { new Recorder(), new Recorder(), new Recorder() };
+        private final LoopbackServer server;
+        private final File downloadFile;
+        private final File uploadFile;
+        private final Context context;
+        private final long deadline;
+
+        Worker(int index, LoopbackServer server, File directory, File uploadFile, Context context, long deadline) {
+            super("load-worker-" + index);
+            this.server = server;
+            this.downloadFile = new File(directory, "download-" + index + ".bin");
+            this.uploadFile = uploadFile;
+            this.context = context;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            int total = Arrays.stream(mix).sum();
+            while (System.nanoTime() < deadline) {
+                int roll = ThreadLocalRandom.current().nextInt(total);
+                int op = 0;
+                while (roll >= mix[op]) {
+                    roll -= mix[op++];
+                }
+
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = switch (op) {
+                        case 0 -> request();
+                        case 1 -> download();
+                        default -> upload();
+                    };
+                } catch (Exception e) {
+                    recorders[op].fail(e, start);
+                    continue;
+                }
+                recorders[op].record(status, start);
+            }
+        }
+
+        private int request() throws Exception {
+            JSObject options = new JSObject();
+            options.put("url", server.getUrl("/json?size=" + size));
+            options.put("responseType", "json");
+            return HttpRequestHandler.request(options, "GET").getInteger("status", 0);
+        }
+
+        private int download() throws Exception {
+            JSObject options = new JSObject();
+            options.put("url", server.getUrl("/bytes?size=" + size));
+            PluginCall call = new PluginCall(null, "Http", "load-test", "downloadFile", options);
+            HttpRequestHandler.downloadFile(call, downloadFile, context, (bytes, contentLength) -> {}, new CancellationToken(null));
+            // Error statuses fail the download with an IOException
+            return 200;
+        }
+
+        private int upload() throws Exception {
+            JSObject options = new JSObject();
+            options.put("url", server.getUrl("/upload"));
+            if (retry) {
+                options.put("retry", new JSObject().put("maxAttempts", 3).put("initialDelay", 100));
+            }
+
+            // Waiting for the queued upload keeps one operation per worker in flight
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicLong status = new AtomicLong();
+            Exception[] error = new Exception[1];
+            UploadQueue.getInstance().addUpload(HttpRequestHandler.createUploadTask(options, uploadFile, context, new UploadTaskCallback() {
+                @Override
+                public void onSuccess(JSObject response) {
+                    status.set(response.getInteger("status", 0));
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String message, String code, Exception e) {
+                    error[0] = e != null ? e : new IOException(message);
+                    done.countDown();
+                }
+            }));
+            done.await();
+            if (error[0] != null) {
+                throw error[0];
+            }
+            return (int) status.get();
+        }
+    }
+
+    /**
+     * Outcomes and latencies of one operation on one worker, so workers never contend
+     */
+    private static class Recorder {
+
+        long[] latencies = new long[1024];
+        int count;
+        int ok;
+        int httpErrors;
+        int failed;
+        final Map<String, Integer> failures = new HashMap<>();
+
+        void record(int status, long startNanos) {
+            add((System.nanoTime() - startNanos) / 1000);
+            if (status >= 200 && status < 300) {
+                ok++;
+            } else {
+                httpErrors++;
+            }
+        }
+
+        void fail(Exception e, long startNanos) {
+            add((System.nanoTime() - startNanos) / 1000);
+            failed++;
+            failures.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            ok += other.ok;
+            httpErrors += other.httpErrors;
+            failed += other.failed;
+        }
+
+        private void add(long micros) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = micros;
+        }
+    }
+
+    /**
+     * Samples heap usage every 50ms, keeping the highest value seen
+     */
+    private static class HeapSampler extends Thread {
+
+        final AtomicLong peak = new AtomicLong();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        HeapSampler() {
+            super("heap-sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.getcapacitor.plugin.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal HTTP/1.1 server on the loopback interface that misbehaves on purpose, to reproduce
+ * slow, throttled and failing backends locally. It serves:
+ * <ul>
+ *     <li>{@code GET /json?size=N}, a JSON array of about N bytes</li>
+ *     <li>{@code GET /bytes?size=N}, N random bytes</li>
+ *     <li>{@code POST /upload}, which reads the body and returns its length</li>
+ * </ul>
+ */
+class LoopbackServer implements Closeable {
+
+    enum BodyMode {
+        /** Content-Length is sent */
+        FIXED,
+        /** Transfer-Encoding: chunked */
+        CHUNKED,
+        /** Neither is sent, the body ends when the connection is closed */
+        UNKNOWN_LENGTH
+    }
+
+    /**
+     * What goes wrong, and how often. Rates are probabilities between 0 and 1, rolled for
+     * every request.
+     */
+    static class Faults {
+
+        long latencyMillis = 0;
+        long latencyJitterMillis = 0;
+        /** Per connection, 0 for unlimited */
+        long bytesPerSecond = 0;
+        BodyMode bodyMode = BodyMode.FIXED;
+        /** The connection is reset (TCP RST) instead of answering */
+        double resetRate = 0;
+        /** 429 Too Many Requests with a Retry-After header */
+        double throttleRate = 0;
+        /** 503 Service Unavailable */
+        double serverErrorRate = 0;
+        int retryAfterSeconds = 1;
+
+        @Override
+        public String toString() {
+            return String.format(
+                Locale.US,
+                "latency %d±%dms, bandwidth %s, body %s, resets %.1f%%, 429 %.1f%%, 5xx %.1f%%",
+                latencyMillis,
+                latencyJitterMillis,
+                bytesPerSecond > 0 ? bytesPerSecond / 1024 + " KB/s" : "unlimited",
+                bodyMode.name().toLowerCase(Locale.US),
+                resetRate * 100,
+                throttleRate * 100,
+                serverErrorRate * 100
+            );
+        }
+    }
+
+    private static final int SLICE = 8 * 1024;
+
+    private final Faults faults;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "loopback-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, byte[]> payloads = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    LoopbackServer(Faults faults) throws IOException {
+        this.faults = faults;
+        this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+
+        Thread acceptor = new Thread(this::accept, "loopback-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String getUrl(String path) {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Loopback server stopped accepting: " + e);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers requests on a connection until the client closes it or a response requires it
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = new BufferedOutputStream(s.getOutputStream());
+
+            while (!closed) {
+                String requestLine = readLine(in);
+                if (requestLine == null || requestLine.isEmpty()) {
+                    return;
+                }
+
+                Map<String, String> headers = new HashMap<>();
+                for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+                    }
+                }
+                long received = readBody(in, headers);
+
+                if (!respond(s, out, requestLine, received) || "close".equalsIgnoreCase(headers.get("connection"))) {
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+            // The client went away, e.g. a cancelled request
+        }
+    }
+
+    /**
+     * Writes the response to a request, or resets the connection
+     * @return false if the connection must not be reused
+     */
+    private boolean respond(Socket socket, OutputStream out, String requestLine, long received) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = faults.latencyMillis + (faults.latencyJitterMillis > 0 ? random.nextLong(faults.latencyJitterMillis + 1) : 0);
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        double roll = random.nextDouble();
+        if (roll < faults.resetRate) {
+            // Closing with a zero linger time sends RST rather than FIN
+            socket.setSoLinger(true, 0);
+            socket.close();
+            return false;
+        }
+        roll -= faults.resetRate;
+        if (roll < faults.throttleRate) {
+            return write(out, 429, "application/json", "{\"error\":\"throttled\"}".getBytes(StandardCharsets.UTF_8), faults.retryAfterSeconds);
+        }
+        roll -= faults.throttleRate;
+        if (roll < faults.serverErrorRate) {
+            return write(out, 503, "application/json", "{\"error\":\"unavailable\"}".getBytes(StandardCharsets.UTF_8), -1);
+        }
+
+        String[] parts = requestLine.split(" ");
+        String method = parts[0];
+        String target = parts.length > 1 ? parts[1] : "/";
+        String path = target.contains("?") ? target.substring(0, target.indexOf('?')) : target;
+        int size = getSizeParam(target);
+
+        if (method.equals("GET") && path.equals("/json")) {
+            return write(out, 200, "application/json", payloads.computeIfAbsent("json" + size, k -> json(size)), -1);
+        } else if (method.equals("GET") && path.equals("/bytes")) {
+            return write(out, 200, "application/octet-stream", payloads.computeIfAbsent("bytes" + size, k -> bytes(size)), -1);
+        } else if (method.equals("POST") && path.equals("/upload")) {
+            return write(out, 200, "application/json", ("{\"received\":" + received + "}").getBytes(StandardCharsets.UTF_8), -1);
+        }
+        return write(out, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8), -1);
+    }
+
+    /**
+     * Writes a response using the configured body mode, at most at the configured bandwidth
+     * @return false if the connection must be closed to end the body
+     */
+    private boolean write(OutputStream out, int status, String contentType, byte[] body, int retryAfter) throws IOException {
+        StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        head.append("Content-Type: ").append(contentType).append("\r\n");
+        if (retryAfter >= 0) {
+            head.append("Retry-After: ").append(retryAfter).append("\r\n");
+        }
+        switch (faults.bodyMode) {
+            case FIXED -> head.append("Content-Length: ").append(body.length).append("\r\n");
+            case CHUNKED -> head.append("Transfer-Encoding: chunked\r\n");
+            case UNKNOWN_LENGTH -> head.append("Connection: close\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += SLICE) {
+            int length = Math.min(SLICE, body.length - offset);
+            if (faults.bodyMode == BodyMode.CHUNKED) {
+                out.write((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(body, offset, length);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            } else {
+                out.write(body, offset, length);
+            }
+            throttle(out, start, offset + length);
+        }
+        if (faults.bodyMode == BodyMode.CHUNKED) {
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        out.flush();
+        return faults.bodyMode != BodyMode.UNKNOWN_LENGTH;
+    }
+
+    /**
+     * Sleeps until sending {@code sent} bytes since {@code start} is within the bandwidth cap
+     */
+    private void throttle(OutputStream out, long start, long sent) throws IOException {
+        if (faults.bytesPerSecond <= 0) {
+            return;
+        }
+        out.flush();
+        long due = sent * 1000 / faults.bytesPerSecond;
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (due > elapsed) {
+            try {
+                Thread.sleep(due - elapsed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted");
+            }
+        }
+    }
+
+    /**
+     * Reads and discards the request body
+     * @return the number of body bytes received
+     */
+    private static long readBody(InputStream in, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            long total = 0;
+            while (true) {
+                String sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    return total;
+                }
+                int extension = sizeLine.indexOf(';');
+                long size = Long.parseLong((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+                if (size == 0) {
+                    // Trailers end with an empty line
+                    for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {}
+                    return total;
+                }
+                skip(in, size);
+                readLine(in);
+                total += size;
+            }
+        }
+        String contentLength = headers.get("content-length");
+        long size = contentLength != null ? Long.parseLong(contentLength) : 0;
+        skip(in, size);
+        return size;
+    }
+
+    private static void skip(InputStream in, long count) throws IOException {
+        byte[] buffer = new byte[SLICE];
+        while (count > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (read == -1) {
+                throw new IOException("Request body ended early");
+            }
+            count -= read;
+        }
+    }
+
+    /**
+     * Reads a CRLF terminated line
+     * @return the line without its terminator, or null at the end of the stream
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return line.size() > 0 ? line.toString(StandardCharsets.US_ASCII) : null;
+    }
+
+    private static int getSizeParam(String target) {
+        int index = target.indexOf("size=");
+        if (index == -1) {
+            return 1024;
+        }
+        int end = target.indexOf('&', index);
+        return Integer.parseInt(target.substring(index + 5, end == -1 ? target.length() : end));
+    }
+
+    private static byte[] json(int size) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; builder.length() < size; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\",\"active\":true}");
+        }
+        return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 404 -> "Not Found";
+            case 429 -> "Too Many Requests";
+            case 503 -> "Service Unavailable";
+            default -> "Unknown";
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.getcapacitor.plugin.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and converting response bodies with {@link HttpResponseBuilder#readData}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadDataBenchmark {
+
+    @Param({ "1024", "65536", "1048576" })
+    int size;
+
+    private byte[] text;
+    private byte[] json;
+    private byte[] jsonObject;
+    private JsonProjection select;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws Exception {
+        StringBuilder textBuilder = new StringBuilder();
+        while (textBuilder.length() < size) {
+            textBuilder.append("The quick brown fox jumps over the lazy dog\n");
+        }
+        text = textBuilder.substring(0, size).getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder jsonBuilder = new StringBuilder("[");
+        for (int i = 0; jsonBuilder.length() < size; i++) {
+            if (i > 0) jsonBuilder.append(',');
+            jsonBuilder
+                .append("{\"id\":")
+                .append(i)
+                .append(",\"name\":\"item ")
+                .append(i)
+                .append("\",\"price\":")
+                .append(i * 1.25)
+                .append(",\"tags\":[\"a\",\"b\"],\"active\":true}");
+        }
+        json = jsonBuilder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        // The same items keyed by id, for documents with an object at the root
+        StringBuilder objectBuilder = new StringBuilder("{");
+        for (int i = 0; objectBuilder.length() < size; i++) {
+            if (i > 0) objectBuilder.append(',');
+            objectBuilder
+                .append("\"")
+                .append(i)
+                .append("\":{\"name\":\"item ")
+                .append(i)
+                .append("\",\"price\":")
+                .append(i * 1.25)
+                .append(",\"tags\":[\"a\",\"b\"],\"active\":true}");
+        }
+        jsonObject = objectBuilder.append('}').toString().getBytes(StandardCharsets.UTF_8);
+
+        select = JsonProjection.fromOption(new JSONArray().put("[*].id").put("[*].name"));
+
+        binary = new byte[size];
+        new Random(42).nextBytes(binary);
+    }
+
+    @Benchmark
+    public Object text() throws Exception {
+        return HttpResponseBuilder.readData(new BenchmarkConnections.Response(text, "text/plain"), ResponseType.TEXT);
+    }
+
+    @Benchmark
+    public Object json() throws Exception {
+        return HttpResponseBuilder.readData(new BenchmarkConnections.Response(json, "application/json"), ResponseType.JSON);
+    }
+
+    @Benchmark
+    public Object jsonRaw() throws Exception {
+        return HttpResponseBuilder.readData(
+            new BenchmarkConnections.Response(json, "application/json"),
+            ResponseType.JSON,
+            true,
+            null,
+            RequestTimings.DISABLED
+        );
+    }
+
+    // Projection mostly saves building and serializing the tree sent over the bridge, so the
+    // bridge benchmarks include serializing the data
+
+    @Benchmark
+    public String jsonBridge() throws Exception {
+        return json().toString();
+    }
+
+    @Benchmark
+    public String jsonSelectBridge() throws Exception {
+        return HttpResponseBuilder.readData(
+            new BenchmarkConnections.Response(json, "application/json"),
+            ResponseType.JSON,
+            false,
+            select,
+            RequestTimings.DISABLED
+        ).toString();
+    }
+
+    @Benchmark
+    public Object jsonObject() throws Exception {
+        return HttpResponseBuilder.readData(new BenchmarkConnections.Response(jsonObject, "application/json"), ResponseType.JSON);
+    }
+
+    @Benchmark
+    public Object base64() throws Exception {
+        return HttpResponseBuilder.readData(
+            new BenchmarkConnections.Response(binary, "application/octet-stream"),
+            ResponseType.ARRAY_BUFFER
+        );
+    }
+}
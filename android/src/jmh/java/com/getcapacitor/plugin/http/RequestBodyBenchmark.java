@@ -0,0 +1,57 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding request bodies with {@link CapacitorHttpUrlConnection#setRequestBody(JSValue)} for
+ * each supported Content-Type
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    @Param({ "application/json", "application/x-www-form-urlencoded", "multipart/form-data", "text/plain" })
+    String contentType;
+
+    @Param({ "10", "100" })
+    int fields;
+
+    private URL url;
+    private JSValue body;
+
+    @Setup
+    public void setup() throws Exception {
+        url = new URL("https://api.example.com/v1/listings");
+        JSObject data = new JSObject();
+        for (int i = 0; i < fields; i++) {
+            data.put("field" + i, "value with spaces & symbols " + i);
+        }
+        body = new JSValue(new JSObject().put("data", data), "data");
+    }
+
+    @Benchmark
+    public CapacitorHttpUrlConnection setRequestBody() throws Exception {
+        BenchmarkConnections.Request request = new BenchmarkConnections.Request(url);
+        request.setRequestProperty("Content-Type", contentType);
+        CapacitorHttpUrlConnection connection = new CapacitorHttpUrlConnection(request);
+        connection.setRequestBody(body);
+        return connection;
+    }
+}
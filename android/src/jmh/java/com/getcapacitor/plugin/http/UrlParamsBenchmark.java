@@ -0,0 +1,57 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the query string of a request with {@link HttpURLConnectionBuilder#setUrlParams}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlParamsBenchmark {
+
+    @Param({ "1", "10", "50" })
+    int params;
+
+    @Param({ "true", "false" })
+    boolean encode;
+
+    private URL url;
+    private JSObject values;
+
+    @Setup
+    public void setup() throws Exception {
+        url = new URL("https://api.example.com/v1/listings/search?page=1");
+        values = new JSObject();
+        for (int i = 0; i < params; i++) {
+            // Every fifth parameter is an array, e.g. ids=1&ids=2&ids=3
+            if (i % 5 == 4) {
+                values.put("ids" + i, new JSArray().put(1).put(2).put(3));
+            } else {
+                values.put("param" + i, "value " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public HttpURLConnectionBuilder setUrlParams() throws Exception {
+        return new HttpURLConnectionBuilder().setUrl(url).setUrlParams(values, encode);
+    }
+}
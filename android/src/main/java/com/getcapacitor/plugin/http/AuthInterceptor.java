@@ -0,0 +1,317 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Adds the access token set with {@code setAuth()} to the requests of the configured URLs and
+ * refreshes it natively when one gets a 401. Refreshes are single-flight: requests that get a
+ * 401 while a refresh is in progress wait for it instead of starting their own, then all of
+ * them are sent again with the new token. The refresh is sent with the token of the request that
+ * started it, and every request stops waiting for it once cancelled or past its deadline.
+ */
+class AuthInterceptor implements HttpInterceptor {
+
+    private static final AuthInterceptor INSTANCE = new AuthInterceptor((options, token) ->
+        HttpRequestHandler.send(options, options.getString("method", "POST").toUpperCase(), new JSObject(), token, RequestTimings.DISABLED)
+    );
+    // How often a request waiting for a refresh checks whether it was cancelled
+    private static final long WAIT_POLL_MILLIS = 50;
+
+    /**
+     * Sends the refresh request, bypassing the interceptors
+     */
+    @FunctionalInterface
+    interface Fetcher {
+        JSObject fetch(JSObject options, CancellationToken token) throws IOException, URISyntaxException, JSONException;
+    }
+
+    private final Fetcher fetcher;
+
+    private volatile Config config;
+    private HttpRequestHandler.ResultEmitter emitter;
+    // The token in use, and the refresh in progress if any, guarded by this
+    private String token;
+    private Refresh refresh;
+
+    AuthInterceptor(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    static AuthInterceptor getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isEnabled() {
+        return config != null;
+    }
+
+    /**
+     * Applies the options of {@code setAuth()}, replacing the previous ones
+     * @param options The URL prefixes, token, header and refresh request
+     * @param emitter Notified when a refresh succeeds or fails
+     * @throws JSONException thrown when the URLs are malformed
+     */
+    synchronized void configure(JSObject options, HttpRequestHandler.ResultEmitter emitter) throws JSONException {
+        List<URL> urls = new ArrayList<>();
+        JSONArray prefixes = options.optJSONArray("urls");
+        if (prefixes != null) {
+            for (int i = 0; i < prefixes.length(); i++) {
+                try {
+                    urls.add(new URL(prefixes.getString(i)));
+                } catch (MalformedURLException e) {
+                    throw new JSONException("Invalid url: " + prefixes.getString(i));
+                }
+            }
+        }
+        this.config = new Config(
+            urls,
+            options.getString("header", "Authorization"),
+            options.getString("scheme", "Bearer"),
+            options.getJSObject("refresh"),
+            options.getString("tokenPath", "access_token")
+        );
+        this.emitter = emitter;
+        this.token = options.getString("token");
+    }
+
+    /**
+     * Returns the header the token is sent in, or null when {@code setAuth()} is not configured
+     */
+    String getHeader() {
+        Config config = this.config;
+        return config != null ? config.header : null;
+    }
+
+    synchronized void clear() {
+        config = null;
+        token = null;
+    }
+
+    @Override
+    public JSObject intercept(Chain chain) throws IOException, URISyntaxException, JSONException {
+        Config config = this.config;
+        if (config == null || !config.applies(chain.url())) {
+            return chain.proceed();
+        }
+
+        String sent = currentToken();
+        setHeader(chain, config, sent);
+        JSObject response = chain.proceed();
+        if (response.getInteger("status", 0) != 401 || config.refresh == null) {
+            return response;
+        }
+
+        String refreshed = refreshAfter(sent, config, chain.token());
+        if (refreshed == null) {
+            return response;
+        }
+        setHeader(chain, config, refreshed);
+        return chain.proceed();
+    }
+
+    private synchronized String currentToken() {
+        return token;
+    }
+
+    private static void setHeader(Chain chain, Config config, String token) {
+        if (token != null) {
+            chain.headers().put(config.header, config.scheme.isEmpty() ? token : config.scheme + " " + token);
+        }
+    }
+
+    /**
+     * Returns a token newer than the one rejected, refreshing it unless another request already
+     * did or is doing so
+     * @param rejected The token the server rejected
+     * @param callToken The token of the request that got the 401
+     * @return The new token, or null when the refresh failed
+     * @throws RequestCancelledException thrown when the request is cancelled while waiting
+     */
+    private String refreshAfter(String rejected, Config config, CancellationToken callToken) throws IOException {
+        while (true) {
+            Refresh flight;
+            boolean leader = false;
+            synchronized (this) {
+                if (token != null && !token.equals(rejected)) {
+                    // Refreshed since this request was sent
+                    return token;
+                }
+                if (refresh == null) {
+                    refresh = new Refresh();
+                    leader = true;
+                }
+                flight = refresh;
+            }
+
+            if (leader) {
+                String refreshed = fetchToken(config, callToken);
+                // A refresh cut short by its request's cancel is left to a request still waiting
+                boolean abandoned = refreshed == null && callToken.isCancelled();
+                synchronized (this) {
+                    // A setAuth() while refreshing wins over the refreshed token
+                    if (refreshed != null && this.config == config) {
+                        token = refreshed;
+                    }
+                    refresh = null;
+                }
+                flight.complete(refreshed, abandoned);
+                callToken.throwIfCancelled();
+                return refreshed;
+            }
+            String refreshed = flight.await(callToken);
+            if (!flight.abandoned) {
+                return refreshed;
+            }
+        }
+    }
+
+    /**
+     * Sends the refresh request and reads the token from its response. The outcome is emitted
+     * unless the request that sent it was cancelled, which says nothing about the refresh.
+     */
+    private String fetchToken(Config config, CancellationToken callToken) {
+        JSObject event = new JSObject();
+        try {
+            JSObject response = fetcher.fetch(config.refresh, callToken);
+            int status = response.getInteger("status", 0);
+            String refreshed = status >= 200 && status < 300 ? readToken(response.opt("data"), config.tokenPath) : null;
+            if (refreshed != null) {
+                event.put("success", true);
+                event.put("token", refreshed);
+            } else {
+                event.put("success", false);
+                event.put("status", status);
+            }
+            return refreshed;
+        } catch (Exception e) {
+            if (callToken.isCancelled()) {
+                return null;
+            }
+            Log.w("AuthInterceptor", "Unable to refresh the token: " + e.getMessage());
+            event.put("success", false);
+            event.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return null;
+        } finally {
+            HttpRequestHandler.ResultEmitter emitter;
+            synchronized (this) {
+                emitter = this.emitter;
+            }
+            if (emitter != null && event.has("success")) {
+                emitter.emit(event);
+            }
+        }
+    }
+
+    /**
+     * Reads the token at a dotted path of a JSON response, e.g. "data.accessToken"
+     */
+    static String readToken(Object data, String path) {
+        Object value = data;
+        try {
+            if (value instanceof String) {
+                value = new JSONObject((String) value);
+            }
+        } catch (JSONException e) {
+            return null;
+        }
+        for (String field : path.split("\\.")) {
+            if (!(value instanceof JSONObject)) {
+                return null;
+            }
+            value = ((JSONObject) value).opt(field);
+        }
+        return value instanceof String && !((String) value).isEmpty() ? (String) value : null;
+    }
+
+    private static class Config {
+
+        final List<URL> urls;
+        final String header;
+        final String scheme;
+        final JSObject refresh;
+        final String tokenPath;
+
+        Config(List<URL> urls, String header, String scheme, JSObject refresh, String tokenPath) {
+            this.urls = urls;
+            this.header = header;
+            this.scheme = scheme;
+            this.refresh = refresh;
+            this.tokenPath = tokenPath;
+        }
+
+        /**
+         * Whether the token is sent to a URL, which must be under one of the configured
+         * prefixes so it never leaks to other servers
+         */
+        boolean applies(URL url) {
+            for (URL prefix : urls) {
+                if (isUnder(url, prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Whether a URL is under a prefix: on the same scheme, host and port, with a path that is the
+     * prefix's or below it. "https://api.example.com/v1" covers "https://api.example.com/v1/users"
+     * but neither "https://api.example.com/v10" nor "https://api.example.com.evil.net/v1".
+     */
+    static boolean isUnder(URL url, URL prefix) {
+        if (!RedirectCache.isSameOrigin(url, prefix)) {
+            return false;
+        }
+        String base = prefix.getPath();
+        if (base.isEmpty() || base.endsWith("/")) {
+            return url.getPath().startsWith(base);
+        }
+        return url.getPath().equals(base) || url.getPath().startsWith(base + "/");
+    }
+
+    /**
+     * A refresh in progress, which the requests that got a 401 meanwhile wait for
+     */
+    private static class Refresh {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile String token;
+        // Set when the request sending the refresh was cancelled, so a waiting one sends it again
+        private volatile boolean abandoned;
+
+        void complete(String token, boolean abandoned) {
+            this.token = token;
+            this.abandoned = abandoned;
+            done.countDown();
+        }
+
+        /**
+         * Waits for the refresh to complete, giving up when the waiting request is cancelled
+         * @throws RequestCancelledException thrown when the request is cancelled while waiting
+         */
+        String await(CancellationToken callToken) throws IOException {
+            try {
+                while (!done.await(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    callToken.throwIfCancelled();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the token refresh");
+            }
+            return token;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.getcapacitor.plugin.http;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets a request in progress be aborted from another thread. Cancelling disconnects the
+ * attached connection, so a blocked connect or body read fails promptly instead of running
+ * to completion.
+ */
+public class CancellationToken {
+
+    private final String requestId;
+    private volatile boolean cancelled = false;
+    private volatile HttpURLConnection connection;
+    // Guarded by this
+    private List<CancellationToken> children = new ArrayList<>();
+
+    public CancellationToken(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+        List<CancellationToken> linked;
+        synchronized (this) {
+            notifyAll();
+            linked = children;
+            children = new ArrayList<>();
+        }
+        for (CancellationToken child : linked) {
+            child.cancel();
+        }
+    }
+
+    /**
+     * Returns a token for one attempt of this request, e.g. a hedge, which is cancelled along
+     * with it but can also be cancelled on its own
+     */
+    public CancellationToken child() {
+        CancellationToken child = new CancellationToken(requestId);
+        synchronized (this) {
+            if (!cancelled) {
+                children.add(child);
+                return child;
+            }
+        }
+        child.cancel();
+        return child;
+    }
+
+    /**
+     * Sets the connection to disconnect on cancel, disconnecting it right away if the request
+     * was cancelled before it was opened
+     */
+    public void attach(HttpURLConnection connection) throws RequestCancelledException {
+        this.connection = connection;
+        if (cancelled) {
+            connection.disconnect();
+            throw new RequestCancelledException(requestId);
+        }
+    }
+
+    /**
+     * Waits between attempts, returning early when the request is cancelled
+     * @param millis The longest time to wait
+     * @throws RequestCancelledException thrown when the request is cancelled before or while waiting
+     */
+    public synchronized void sleep(long millis) throws RequestCancelledException {
+        long deadline = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (!cancelled && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        throwIfCancelled();
+    }
+
+    public void throwIfCancelled() throws RequestCancelledException {
+        if (cancelled) {
+            throw new RequestCancelledException(requestId);
+        }
+    }
+}
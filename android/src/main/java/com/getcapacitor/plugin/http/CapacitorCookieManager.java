@@ -6,6 +6,7 @@ import java.net.CookiePolicy;
 import java.net.CookieStore;
 import java.net.HttpCookie;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -15,10 +16,32 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class CapacitorCookieManager extends CookieManager {
 
-    private final android.webkit.CookieManager webkitCookieManager;
+    /**
+     * How long writes wait for more writes before they are flushed to disk together
+     */
+    static final long FLUSH_DELAY_MILLIS = 500;
+
+    // Flushes run off the calling thread, as they block on disk I/O
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CookieManager-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Looked up on first use, as it starts the WebView's cookie infrastructure
+    private volatile android.webkit.CookieManager webkitCookieManager;
+    // Null when cookies are kept by the WebView
+    private final NativeCookieStore nativeStore;
+    private final boolean syncToWebView;
+    private ScheduledFuture<?> pendingFlush;
+    private final CookieHeaderCache headerCache = new CookieHeaderCache(CookieHeaderCache.DEFAULT_TTL_MILLIS);
 
     /**
      * Create a new cookie manager for use with @leadscout/http with the default cookie
@@ -38,7 +61,30 @@ public class CapacitorCookieManager extends CookieManager {
      */
     public CapacitorCookieManager(CookieStore store, CookiePolicy policy) {
         super(store, policy);
-        webkitCookieManager = android.webkit.CookieManager.getInstance();
+        this.nativeStore = null;
+        this.syncToWebView = false;
+    }
+
+    /**
+     * Create a new cookie manager for use with @leadscout/http that keeps cookies in a
+     * {@code NativeCookieStore} instead of the WebView, so it works without one.
+     * @param store the {@code NativeCookieStore} holding the cookies
+     * @param policy a {@code CookiePolicy} instance to be used by cookie manager as policy
+     *               callback. if {@code null}, ACCEPT_ORIGINAL_SERVER will be used.
+     * @param syncToWebView whether cookies set natively are also set in the WebView, for pages
+     *                      that need them. Cookies set by the WebView are not read back.
+     */
+    public CapacitorCookieManager(NativeCookieStore store, CookiePolicy policy, boolean syncToWebView) {
+        super(store, policy);
+        this.nativeStore = store;
+        this.syncToWebView = syncToWebView;
+    }
+
+    private android.webkit.CookieManager webkit() {
+        if (webkitCookieManager == null) {
+            webkitCookieManager = android.webkit.CookieManager.getInstance();
+        }
+        return webkitCookieManager;
     }
 
     /**
@@ -47,7 +93,14 @@ public class CapacitorCookieManager extends CookieManager {
      * @return value the cookies as a string, using the format of the 'Cookie' HTTP request header
      */
     public String getCookieString(String url) {
-        return webkitCookieManager.getCookie(url);
+        if (nativeStore != null) {
+            try {
+                return toHeader(getNativeCookies(new URI(url)));
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        }
+        return webkit().getCookie(url);
     }
 
     /**
@@ -75,6 +128,10 @@ public class CapacitorCookieManager extends CookieManager {
      */
     public HttpCookie[] getCookies(String url) {
         try {
+            if (nativeStore != null) {
+                return getNativeCookies(new URI(url)).toArray(new HttpCookie[0]);
+            }
+
             ArrayList<HttpCookie> cookieList = new ArrayList<>();
             String cookieString = getCookieString(url);
             if (cookieString != null) {
@@ -99,8 +156,40 @@ public class CapacitorCookieManager extends CookieManager {
      * @param value the cookie as a string, using the format of the 'Set-Cookie' HTTP response header
      */
     public void setCookie(String url, String value) {
-        webkitCookieManager.setCookie(url, value);
-        flush();
+        if (nativeStore != null) {
+            setNativeCookie(url, value);
+            if (syncToWebView) {
+                webkit().setCookie(url, value);
+            }
+        } else {
+            webkit().setCookie(url, value);
+            headerCache.invalidate(url, value);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Sets several cookies for the given URL, writing them to persistent storage together.
+     * @param url the URL for which the cookies are to be set
+     * @param values the cookies as strings, using the format of the 'Set-Cookie' HTTP response header
+     */
+    public void setCookies(String url, List<String> values) {
+        for (String value : values) {
+            setCookie(url, value);
+        }
+    }
+
+    /**
+     * Expires the cookies with the given names for the given URL.
+     * @param url the URL for which the cookies are to be deleted
+     * @param keys the {@code HttpCookie} names to delete
+     */
+    public void deleteCookies(String url, List<String> keys) {
+        List<String> values = new ArrayList<>();
+        for (String key : keys) {
+            values.add(key + "=; Expires=Wed, 31 Dec 2000 23:59:59 GMT");
+        }
+        setCookies(url, values);
     }
 
     /**
@@ -119,8 +208,21 @@ public class CapacitorCookieManager extends CookieManager {
      * Removes all cookies. This method is asynchronous.
      */
     public void removeAllCookies() {
-        webkitCookieManager.removeAllCookies(null);
-        flush();
+        if (nativeStore != null) {
+            nativeStore.removeAll();
+            if (syncToWebView) {
+                webkit().removeAllCookies(null);
+            }
+            scheduleFlush();
+            return;
+        }
+
+        // Cleared again once removed, as a request in between could cache the old cookies
+        headerCache.clear();
+        webkit().removeAllCookies(removed -> {
+            headerCache.clear();
+            scheduleFlush();
+        });
     }
 
     /**
@@ -128,7 +230,103 @@ public class CapacitorCookieManager extends CookieManager {
      *  storage. This call will block the caller until it is done and may perform I/O.
      */
     public void flush() {
-        webkitCookieManager.flush();
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+        }
+        write();
+    }
+
+    /**
+     * Flushes cookies to persistent storage {@link #FLUSH_DELAY_MILLIS} after the first write
+     *  since the last flush, so a burst of writes, such as the Set-Cookie headers of a login,
+     *  is written at once.
+     */
+    private synchronized void scheduleFlush() {
+        if (pendingFlush == null) {
+            pendingFlush = FLUSHER.schedule(this::flushPending, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushPending() {
+        synchronized (this) {
+            pendingFlush = null;
+        }
+        write();
+    }
+
+    private void write() {
+        if (nativeStore != null) {
+            nativeStore.save();
+        }
+        if (nativeStore == null || syncToWebView) {
+            webkit().flush();
+        }
+    }
+
+    /**
+     * Stores the cookies of a Set-Cookie header in the native store, defaulting their path to
+     *  the directory of the URL and ignoring those for a domain the URL is not part of
+     */
+    private void setNativeCookie(String url, String value) {
+        try {
+            URI uri = new URI(url);
+            for (HttpCookie cookie : HttpCookie.parse(value)) {
+                // Sent as name=value, whatever attributes made the parser guess
+                cookie.setVersion(0);
+                if (cookie.getPath() == null) {
+                    cookie.setPath(CookieHeaderCache.defaultPath(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()));
+                }
+                if (cookie.getDomain() != null && uri.getHost() != null && !HttpCookie.domainMatches(cookie.getDomain(), uri.getHost())) {
+                    continue;
+                }
+                nativeStore.add(uri, cookie);
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Not a valid URL or cookie, as the WebView would also ignore
+        }
+    }
+
+    /**
+     * Returns the native cookies sent to a URL, matching its domain, path and scheme, the most
+     *  specific paths first
+     */
+    private List<HttpCookie> getNativeCookies(URI uri) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme()) || "wss".equalsIgnoreCase(uri.getScheme());
+
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (HttpCookie cookie : nativeStore.get(uri)) {
+            String cookiePath = cookie.getPath() != null ? cookie.getPath() : "/";
+            boolean pathMatches =
+                path.equals(cookiePath) ||
+                (path.startsWith(cookiePath) && (cookiePath.endsWith("/") || path.charAt(cookiePath.length()) == '/'));
+            if (pathMatches && (secure || !cookie.getSecure())) {
+                cookies.add(cookie);
+            }
+        }
+        Collections.sort(cookies, (a, b) -> Integer.compare(pathLength(b), pathLength(a)));
+        return cookies;
+    }
+
+    private static int pathLength(HttpCookie cookie) {
+        return cookie.getPath() != null ? cookie.getPath().length() : 0;
+    }
+
+    private static String toHeader(List<HttpCookie> cookies) {
+        if (cookies.isEmpty()) {
+            return null;
+        }
+        StringBuilder header = new StringBuilder();
+        for (HttpCookie cookie : cookies) {
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.getName()).append('=').append(cookie.getValue());
+        }
+        return header.toString();
     }
 
     @Override
@@ -156,14 +354,11 @@ public class CapacitorCookieManager extends CookieManager {
         // make sure our args are valid
         if ((uri == null) || (requestHeaders == null)) throw new IllegalArgumentException("Argument is null");
 
-        // save our url once
-        String url = uri.toString();
-
         // prepare our response
         Map<String, List<String>> res = new HashMap<>();
 
-        // get the cookie
-        String cookie = getCookieString(url);
+        // get the cookie, looked up in the WebView only when not cached
+        String cookie = nativeStore != null ? toHeader(getNativeCookies(uri)) : headerCache.get(uri, this::getCookieString);
 
         // return it
         if (cookie != null) res.put("Cookie", Collections.singletonList(cookie));
@@ -172,7 +367,10 @@ public class CapacitorCookieManager extends CookieManager {
 
     @Override
     public CookieStore getCookieStore() {
-        // we don't want anyone to work with this cookie store directly
+        if (nativeStore != null) {
+            return nativeStore;
+        }
+        // we don't want anyone to work with the WebView's cookie store directly
         throw new UnsupportedOperationException();
     }
 }
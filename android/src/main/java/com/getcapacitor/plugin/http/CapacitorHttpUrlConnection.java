@@ -3,7 +3,6 @@ package com.getcapacitor.plugin.http;
 import android.os.Build;
 import android.os.LocaleList;
 import android.text.TextUtils;
-import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
 import java.io.DataOutputStream;
@@ -25,6 +24,7 @@ import org.json.JSONException;
 public class CapacitorHttpUrlConnection implements ICapacitorHttpUrlConnection {
 
     private final HttpURLConnection connection;
+    private URL redirectedFrom;
 
     /**
      * Make a new CapacitorHttpUrlConnection instance, which wraps around HttpUrlConnection
@@ -45,6 +45,19 @@ public class CapacitorHttpUrlConnection implements ICapacitorHttpUrlConnection {
         return connection;
     }
 
+    /**
+     * Returns the URL the request was made to when it was sent to where that URL permanently
+     * redirected to instead
+     * @return the requested URL, or null if the connection is to the requested URL
+     */
+    public URL getRedirectedFrom() {
+        return redirectedFrom;
+    }
+
+    void setRedirectedFrom(URL redirectedFrom) {
+        this.redirectedFrom = redirectedFrom;
+    }
+
     /**
      * Set the value of the {@code allowUserInteraction} field of
      * this {@code URLConnection}.
@@ -163,30 +176,30 @@ public class CapacitorHttpUrlConnection implements ICapacitorHttpUrlConnection {
     }
 
     /**
-     *
-     * @param call
-     * @throws JSONException
-     * @throws IOException
+     * Writes the request body of a PluginCall
+     * @param call The Capacitor PluginCall, used to read the "data" option when {@code body} is null
+     * @param body The request body
+     * @throws JSONException thrown when the body does not match the Content-Type
+     * @throws IOException thrown when the body cannot be written
      */
     public void setRequestBody(PluginCall call, JSValue body) throws JSONException, IOException {
+        setRequestBody(body != null ? body : new JSValue(call, "data"));
+    }
+
+    /**
+     * Writes the request body, encoded according to the Content-Type request header. Nothing
+     * is written when no Content-Type is set.
+     * @param body The request body
+     * @throws JSONException thrown when the body does not match the Content-Type
+     * @throws IOException thrown when the body cannot be written
+     */
+    public void setRequestBody(JSValue body) throws JSONException, IOException {
         String contentType = connection.getRequestProperty("Content-Type");
-        String dataString = "";
 
         if (contentType == null || contentType.isEmpty()) return;
 
         if (contentType.contains("application/json")) {
-            JSArray jsArray = null;
-            if (body != null) {
-                dataString = body.toString();
-            } else {
-                jsArray = call.getArray("data", null);
-            }
-            if (jsArray != null) {
-                dataString = jsArray.toString();
-            } else if (body == null) {
-                dataString = call.getString("data");
-            }
-            this.writeRequestBody(dataString.toString());
+            this.writeRequestBody(body.toString());
         } else if (contentType.contains("application/x-www-form-urlencoded")) {
             StringBuilder builder = new StringBuilder();
 
@@ -225,10 +238,12 @@ public class CapacitorHttpUrlConnection implements ICapacitorHttpUrlConnection {
      * @param body The string value to write to the connection stream.
      */
     private void writeRequestBody(String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
         try (DataOutputStream os = new DataOutputStream(connection.getOutputStream())) {
-            os.write(body.getBytes(StandardCharsets.UTF_8));
+            os.write(bytes);
             os.flush();
         }
+        HttpMetrics.getInstance().addBytesOut(bytes.length);
     }
 
     /**
@@ -0,0 +1,150 @@
+package com.getcapacitor.plugin.http;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caches the Cookie request header of each origin and path, so requests do not look it up in
+ * the WebView's cookie store every time. Setting a cookie invalidates the entries it applies to.
+ * Entries also expire after a short time to age out cookies that expire, or that the WebView
+ * changes, behind the plugin's back.
+ */
+class CookieHeaderCache {
+
+    static final long DEFAULT_TTL_MILLIS = 1000;
+    static final int MAX_ENTRIES = 256;
+
+    @FunctionalInterface
+    interface Loader {
+        String load(String url);
+    }
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // Counts invalidations, so a header loaded while one happens is not cached
+    private long generation = 0;
+
+    CookieHeaderCache(long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the Cookie header for a URL, loading and caching it when missing or expired
+     * @param uri The URL of the request
+     * @param loader Looks up the header when it is not cached
+     * @return The Cookie header, or null when no cookie applies
+     */
+    String get(URI uri, Loader loader) {
+        String key = keyOf(uri);
+        long loadedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+                return entry.header;
+            }
+            loadedGeneration = generation;
+        }
+
+        String header = loader.load(uri.toString());
+        synchronized (this) {
+            if (generation == loadedGeneration) {
+                entries.put(key, new Entry(lowerHost(uri), pathOf(uri), header, System.nanoTime()));
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Drops the entries a Set-Cookie header applies to: those whose host matches the cookie's
+     * domain, or the URL's host when it has none, and whose path starts with the cookie's path
+     * @param url The URL the cookie is set for
+     * @param setCookie The cookie, using the format of the 'Set-Cookie' HTTP response header
+     */
+    synchronized void invalidate(String url, String setCookie) {
+        generation++;
+        try {
+            URI uri = new URI(url);
+            List<HttpCookie> cookies = HttpCookie.parse(setCookie);
+            for (HttpCookie cookie : cookies) {
+                String domain = cookie.getDomain() != null ? cookie.getDomain().toLowerCase(Locale.ROOT) : lowerHost(uri);
+                if (domain.startsWith(".")) {
+                    domain = domain.substring(1);
+                }
+                String path = cookie.getPath() != null ? cookie.getPath() : defaultPath(pathOf(uri));
+                removeMatching(domain, path);
+            }
+        } catch (Exception e) {
+            // A cookie that cannot be parsed may apply anywhere
+            entries.clear();
+        }
+    }
+
+    /**
+     * Drops every entry
+     */
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void removeMatching(String domain, String path) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            boolean hostMatches = entry.host.equals(domain) || entry.host.endsWith("." + domain);
+            if (hostMatches && entry.path.startsWith(path)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String keyOf(URI uri) {
+        return uri.getScheme() + "://" + lowerHost(uri) + ":" + uri.getPort() + pathOf(uri);
+    }
+
+    private static String lowerHost(URI uri) {
+        return uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String pathOf(URI uri) {
+        String path = uri.getRawPath();
+        return path == null || path.isEmpty() ? "/" : path;
+    }
+
+    /**
+     * The path a cookie without a Path attribute applies to: the URL's path up to its last slash
+     */
+    static String defaultPath(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash <= 0 ? "/" : path.substring(0, slash);
+    }
+
+    private static class Entry {
+
+        final String host;
+        final String path;
+        final String header;
+        final long loadedAt;
+
+        Entry(String host, String path, String header, long loadedAt) {
+            this.host = host;
+            this.path = path;
+            this.header = header;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+
+/**
+ * The total time a call may take, from when it is made until its response is read, whatever
+ * redirects, retries and slow bodies happen in between. A watchdog cancels the call's token
+ * when the time is up, which disconnects the connection in use.
+ */
+class Deadline {
+
+    // One thread expires the deadlines of every call
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Deadline-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A call sent with the token it should be cancelled through
+     */
+    @FunctionalInterface
+    interface Call {
+        JSObject run(CancellationToken token) throws IOException, URISyntaxException, JSONException;
+    }
+
+    private final long millis;
+    private final long expiresAt;
+
+    Deadline(long millis) {
+        this.millis = millis;
+        this.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Starts the deadline of a call from its "deadline" option, in milliseconds
+     * @return The deadline, or null when the call has none
+     */
+    static Deadline fromOptions(JSObject options) {
+        long millis = options.optLong("deadline", 0);
+        return millis > 0 ? new Deadline(millis) : null;
+    }
+
+    /**
+     * Runs a call within the deadline of its options, if any
+     * @param options The options of the call, with an optional "deadline" in milliseconds
+     * @param token The token of the call
+     * @param call Sends the call with the token to use, cancelled when the deadline passes
+     * @throws DeadlineExceededException thrown when the call does not complete in time
+     */
+    static JSObject enforce(JSObject options, CancellationToken token, Call call) throws IOException, URISyntaxException, JSONException {
+        return enforce(fromOptions(options), token, call);
+    }
+
+    /**
+     * Runs a call within a deadline already started, e.g. when the call was queued
+     * @param deadline The deadline, or null to run the call without one
+     */
+    static JSObject enforce(Deadline deadline, CancellationToken token, Call call) throws IOException, URISyntaxException, JSONException {
+        if (deadline == null) {
+            return call.run(token);
+        }
+        try (Watch watch = deadline.watch(token)) {
+            try {
+                return call.run(watch.getToken());
+            } catch (IOException e) {
+                throw watch.translate(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the time left, in milliseconds, 0 once expired
+     */
+    long remaining() {
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()), 0);
+    }
+
+    /**
+     * Watches a call until the deadline, returning a token cancelled either with the call's own
+     * token or when the time is up
+     * @param token The token of the call
+     * @return The watch, to close once the call completes
+     */
+    Watch watch(CancellationToken token) {
+        CancellationToken child = token.child();
+        ScheduledFuture<?> expiry = WATCHDOG.schedule(child::cancel, remaining(), TimeUnit.MILLISECONDS);
+        return new Watch(token, child, expiry);
+    }
+
+    /**
+     * A call watched until its deadline
+     */
+    class Watch implements AutoCloseable {
+
+        private final CancellationToken parent;
+        private final CancellationToken token;
+        private final ScheduledFuture<?> expiry;
+
+        Watch(CancellationToken parent, CancellationToken token, ScheduledFuture<?> expiry) {
+            this.parent = parent;
+            this.token = token;
+            this.expiry = expiry;
+        }
+
+        /**
+         * The token to send the call with
+         */
+        CancellationToken getToken() {
+            return token;
+        }
+
+        /**
+         * Reports a call aborted by the watchdog as exceeding its deadline rather than as
+         * cancelled, leaving other errors as they are
+         */
+        IOException translate(IOException e) {
+            if (token.isCancelled() && !parent.isCancelled()) {
+                return new DeadlineExceededException(parent.getRequestId(), millis);
+            }
+            return e;
+        }
+
+        @Override
+        public void close() {
+            expiry.cancel(false);
+        }
+    }
+}
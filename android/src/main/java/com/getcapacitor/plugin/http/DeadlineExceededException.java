@@ -0,0 +1,15 @@
+package com.getcapacitor.plugin.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request does not complete within the total time set by its "deadline" option
+ */
+public class DeadlineExceededException extends IOException {
+
+    public static final String CODE = "DEADLINE_EXCEEDED";
+
+    public DeadlineExceededException(String requestId, long deadline) {
+        super("Request " + (requestId != null ? requestId + " " : "") + "did not complete within its deadline of " + deadline + "ms");
+    }
+}
@@ -0,0 +1,336 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * Reads a streaming response as it arrives, parsing NDJSON records or Server-Sent Events, and
+ * emits them to JavaScript in batches bounded by count and by time. Event streams reconnect
+ * when the connection drops, resuming from the last event ID they received.
+ */
+class EventStream {
+
+    enum Format {
+        NDJSON,
+        SSE;
+
+        /**
+         * @param value "ndjson" or "sse" in any case, or null to detect it from the Content-Type
+         * @return The format, or null when it is to be detected
+         * @throws IllegalArgumentException thrown when the format is neither
+         */
+        static Format parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported stream format: " + value + ", expected ndjson or sse");
+        }
+    }
+
+    static final int DEFAULT_BATCH_SIZE = 50;
+    static final long DEFAULT_BATCH_INTERVAL = 100;
+    static final long DEFAULT_RECONNECT_DELAY = 3000;
+    static final int DEFAULT_MAX_RECONNECTS = 10;
+
+    // One thread flushes the batches of every stream that waited long enough
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EventStream-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JSObject options;
+    private final String requestId;
+    private final CancellationToken token;
+    private final HttpRequestHandler.ResultEmitter emitter;
+    private final int batchSize;
+    private final long batchInterval;
+    private final boolean reconnect;
+    private final int maxReconnects;
+    private Format format;
+    private long reconnectDelay;
+    private String lastEventId;
+    private JSArray pending = new JSArray();
+    private long total = 0;
+    private int reconnects = 0;
+
+    EventStream(JSObject options, String requestId, CancellationToken token, HttpRequestHandler.ResultEmitter emitter) {
+        this.options = options;
+        this.requestId = requestId;
+        this.token = token;
+        this.emitter = emitter;
+        this.batchSize = Math.max(options.getInteger("batchSize", DEFAULT_BATCH_SIZE), 1);
+        this.batchInterval = Math.max(options.optLong("batchInterval", DEFAULT_BATCH_INTERVAL), 1);
+        this.reconnect = options.getBoolean("reconnect", true);
+        this.maxReconnects = options.getInteger("maxReconnects", DEFAULT_MAX_RECONNECTS);
+        this.reconnectDelay = options.optLong("reconnectDelay", DEFAULT_RECONNECT_DELAY);
+        this.lastEventId = options.getString("lastEventId");
+        this.format = Format.parse(options.getString("format"));
+    }
+
+    /**
+     * Reads the stream until the server ends it, it fails for good or it is cancelled
+     * @return A summary of the events received
+     * @throws IOException thrown when the stream fails and cannot reconnect
+     * @throws URISyntaxException thrown when the URI is malformed
+     * @throws JSONException thrown when an NDJSON record or the request body is malformed
+     */
+    JSObject run() throws IOException, URISyntaxException, JSONException {
+        ScheduledFuture<?> flushing = FLUSHER.scheduleWithFixedDelay(this::flush, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+        boolean cancelled = false;
+        try {
+            int failures = 0;
+            while (true) {
+                long received = total;
+                boolean resumable;
+                try {
+                    resumable = read();
+                } catch (StatusException e) {
+                    throw e;
+                } catch (IOException e) {
+                    // Disconnecting surfaces as whatever error the blocked read hit
+                    token.throwIfCancelled();
+                    if (format != Format.SSE || !reconnect) {
+                        throw e;
+                    }
+                    resumable = true;
+                }
+
+                if (!resumable || !reconnect) {
+                    break;
+                }
+
+                // Only failures in a row count, a connection that delivered events starts over
+                failures = total > received ? 1 : failures + 1;
+                if (failures > maxReconnects) {
+                    throw new IOException("Event stream " + requestId + " gave up after " + maxReconnects + " reconnects");
+                }
+                Log.w("EventStream", "🔁 Reconnecting " + requestId + " in " + reconnectDelay + "ms, last event " + lastEventId);
+                token.sleep(reconnectDelay);
+                reconnects++;
+            }
+        } catch (RequestCancelledException e) {
+            cancelled = true;
+        } finally {
+            flushing.cancel(false);
+            flush();
+        }
+
+        JSObject summary = new JSObject();
+        summary.put("requestId", requestId);
+        summary.put("events", total);
+        summary.put("reconnects", reconnects);
+        summary.put("lastEventId", lastEventId);
+        summary.put("cancelled", cancelled);
+        return summary;
+    }
+
+    /**
+     * Opens one connection and reads its events until it ends
+     * @return Whether an event stream can resume by reconnecting, which is the case unless the
+     * server answered 204 No Content
+     */
+    private boolean read() throws IOException, URISyntaxException, JSONException {
+        String method = Objects.requireNonNull(options.getString("method", "GET")).toUpperCase();
+        JSObject headers = options.getJSObject("headers", new JSObject());
+        if (lastEventId != null) {
+            headers.put("Last-Event-ID", lastEventId);
+        }
+
+        URL url = new URL(options.getString("url", ""));
+        CapacitorHttpUrlConnection connection = new HttpURLConnectionBuilder()
+            .setUrl(url)
+            .setMethod(method)
+            .setHeaders(headers)
+            .setUrlParams(options.getJSObject("params"), options.getBoolean("shouldEncodeUrlParams", true))
+            .setConnectTimeout(options.getInteger("connectTimeout"))
+            .setReadTimeout(options.getInteger("readTimeout"))
+            .openConnection()
+            .build();
+        token.attach(connection.getHttpConnection());
+
+        HttpMetrics metrics = HttpMetrics.getInstance();
+        long start = System.nanoTime();
+        try {
+            JSValue data = new JSValue(options, "data");
+            if (!method.equals("GET") && !method.equals("HEAD") && data.getValue() != null) {
+                connection.setDoOutput(true);
+                connection.setRequestBody(data);
+            }
+
+            int status = connection.getResponseCode();
+            metrics.recordResponse(url, status, start);
+            if (status == 204) {
+                return false;
+            } else if (status < 200 || status >= 300) {
+                throw new StatusException(status);
+            }
+
+            if (format == null) {
+                String contentType = connection.getHeaderField("Content-Type");
+                format = contentType != null && contentType.contains("text/event-stream") ? Format.SSE : Format.NDJSON;
+            }
+
+            try (
+                BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(metrics.countIn(connection.getInputStream()), StandardCharsets.UTF_8)
+                )
+            ) {
+                if (format == Format.SSE) {
+                    readEvents(reader);
+                } else {
+                    readRecords(reader);
+                }
+            }
+            return format == Format.SSE;
+        } catch (IOException e) {
+            // A cancelled stream is disconnected, which says nothing about the network
+            if (token.isCancelled()) {
+                metrics.recordCancelled();
+            } else if (!(e instanceof StatusException)) {
+                metrics.recordError(url, start);
+            }
+            throw e;
+        } finally {
+            connection.getHttpConnection().disconnect();
+        }
+    }
+
+    /**
+     * Reads one JSON value per line, skipping blank lines
+     */
+    void readRecords(BufferedReader reader) throws IOException, JSONException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                add(new JSONTokener(line).nextValue());
+            }
+        }
+    }
+
+    /**
+     * Reads Server-Sent Events, dispatching each one at the blank line that ends it. An event
+     * cut off by the end of the connection is discarded, as the server sends it again after the
+     * last event ID.
+     */
+    void readEvents(BufferedReader reader) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String type = null;
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (first && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            first = false;
+
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    JSObject event = new JSObject();
+                    event.put("type", type != null ? type : "message");
+                    event.put("data", data.substring(0, data.length() - 1));
+                    event.put("id", lastEventId);
+                    add(event);
+                }
+                data.setLength(0);
+                type = null;
+                continue;
+            } else if (line.startsWith(":")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            String field = colon == -1 ? line : line.substring(0, colon);
+            String value = colon == -1 ? "" : line.substring(value(line, colon));
+            switch (field) {
+                case "event":
+                    type = value;
+                    break;
+                case "data":
+                    data.append(value).append('\n');
+                    break;
+                case "id":
+                    if (value.indexOf('\0') == -1) {
+                        lastEventId = value;
+                    }
+                    break;
+                case "retry":
+                    // Only a number of milliseconds is accepted, anything else is ignored
+                    if (isDigits(value) && value.length() < 19) {
+                        reconnectDelay = Long.parseLong(value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Whether a value is a non-empty run of ASCII digits, as the retry field must be
+     */
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+
+    /**
+     * Returns where the value of a field starts, after its colon and an optional space
+     */
+    private static int value(String line, int colon) {
+        return colon + 1 < line.length() && line.charAt(colon + 1) == ' ' ? colon + 2 : colon + 1;
+    }
+
+    private synchronized void add(Object event) {
+        pending.put(event);
+        total++;
+        if (pending.length() >= batchSize) {
+            flush();
+        }
+    }
+
+    synchronized void flush() {
+        if (pending.length() == 0) {
+            return;
+        }
+
+        JSObject batch = new JSObject();
+        batch.put("requestId", requestId);
+        batch.put("events", pending);
+        pending = new JSArray();
+        emitter.emit(batch);
+    }
+
+    /**
+     * The server answered with a status that ends the stream instead of a reconnect
+     */
+    private static class StatusException extends IOException {
+
+        StatusException(int status) {
+            super("Stream failed with status " + status);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.io.PrintWriter;
 import java.net.HttpURLConnection;
 import java.net.URLConnection;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
 import org.json.JSONException;
 
@@ -33,7 +34,7 @@ public class FormUploader {
 
         connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
 
-        outputStream = connection.getOutputStream();
+        outputStream = HttpMetrics.getInstance().countOut(connection.getOutputStream());
         prWriter = new PrintWriter(new OutputStreamWriter(outputStream, charset), true);
     }
 
@@ -97,6 +98,37 @@ public class FormUploader {
      * @throws IOException Thrown if unable to parse the OutputStream of the connection
      */
     public void addFilePart(String fieldName, File uploadFile, JSObject data) throws IOException {
+        appendDataFieldsToWriter(data);
+        appendFileToWriter(fieldName, uploadFile);
+
+        prWriter.append(LINE_FEED).append("--").append(boundary).append("--").append(LINE_FEED);
+        prWriter.flush();
+    }
+
+    /**
+     * Adds several upload file sections to the request, after the form fields
+     *
+     * @param files      the files to be uploaded, keyed by field name in upload order
+     * @param data       form fields to send before the files
+     * @throws IOException Thrown if unable to parse the OutputStream of the connection
+     */
+    public void addFileParts(Map<String, File> files, JSObject data) throws IOException {
+        appendDataFieldsToWriter(data);
+        for (Map.Entry<String, File> file : files.entrySet()) {
+            appendFileToWriter(file.getKey(), file.getValue());
+        }
+
+        prWriter.append(LINE_FEED).append("--").append(boundary).append("--").append(LINE_FEED);
+        prWriter.flush();
+    }
+
+    /**
+     * Adds the data fields to the prWriter. The 'key' field is always written first,
+     * since S3 requires it to precede the other fields.
+     *
+     * @param data form fields to write
+     */
+    private void appendDataFieldsToWriter(JSObject data) {
         // First, add the 'key' field if it exists
         if (data != null && data.has("key")) {
             try {
@@ -128,9 +160,18 @@ public class FormUploader {
                 }
             }
         }
+    }
 
-        // Finally add the file part
+    /**
+     * Adds a file section, without a closing boundary, to the prWriter
+     *
+     * @param fieldName  name attribute in <input type="file" name="..." />
+     * @param uploadFile a File to be uploaded
+     * @throws IOException Thrown if unable to parse the OutputStream of the connection
+     */
+    private void appendFileToWriter(String fieldName, File uploadFile) throws IOException {
         String fileName = uploadFile.getName();
+        String contentType = URLConnection.guessContentTypeFromName(fileName);
         prWriter
             .append(LINE_FEED)
             .append("--")
@@ -143,7 +184,7 @@ public class FormUploader {
             .append("\"")
             .append(LINE_FEED)
             .append("Content-Type: ")
-            .append(URLConnection.guessContentTypeFromName(fileName))
+            .append(contentType != null ? contentType : "application/octet-stream")
             .append(LINE_FEED)
             .append(LINE_FEED);
         prWriter.flush();
@@ -156,9 +197,6 @@ public class FormUploader {
         }
         outputStream.flush();
         inputStream.close();
-
-        prWriter.append(LINE_FEED).append("--").append(boundary).append("--").append(LINE_FEED);
-        prWriter.flush();
     }
 
     /**
@@ -0,0 +1,278 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Sends an idempotent request a second time when the first attempt has not received a
+ * response after a delay, and keeps whichever attempt responds first, cancelling the other.
+ * The first attempt runs on the calling thread and the hedge on the {@link RequestDispatcher},
+ * so waiting requests never hold every thread of the pool. Hedges are limited to a share of
+ * the hedged requests by a token bucket, so a slow host is not sent twice the traffic. Each
+ * attempt records its own timings, and those of the attempt whose response is returned become
+ * the request's.
+ */
+class HedgedRequest {
+
+    // Delay of a host without enough recorded latencies to derive one
+    static final long DEFAULT_DELAY = 500;
+    static final int MIN_SAMPLES = 20;
+    static final int DEFAULT_MAX_RATE = 10;
+    // Hedges that can be sent in a row, e.g. when a host stalls after a quiet period
+    private static final double MAX_TOKENS = 10;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HedgedRequest-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Object BUDGET = new Object();
+    private static double tokens = MAX_TOKENS;
+    private static double maxRate = DEFAULT_MAX_RATE / 100.0;
+    private static final AtomicLong eligible = new AtomicLong();
+    private static final AtomicLong hedged = new AtomicLong();
+    private static final AtomicLong hedgeWins = new AtomicLong();
+    private static final AtomicLong denied = new AtomicLong();
+
+    /**
+     * Sends one attempt of the request
+     */
+    @FunctionalInterface
+    interface Attempt {
+        /**
+         * @param token The token of this attempt, cancelled when the other one wins
+         * @param timings The timings of this attempt
+         * @param onResponse Called when the status and headers of the response are received
+         */
+        JSObject send(CancellationToken token, RequestTimings timings, Runnable onResponse)
+            throws IOException, URISyntaxException, JSONException;
+    }
+
+    private final long delay;
+    private final CancellationToken token;
+    private final RequestTimings timings;
+    private final Attempt attempt;
+    private final CancellationToken primaryToken;
+    // Guarded by this
+    private CancellationToken hedgeToken;
+    private RequestTimings hedgeTimings;
+    private int winner = -1;
+    private boolean primaryFailed = false;
+    private boolean hedgeStarted = false;
+    private boolean hedgeDone = false;
+    private JSObject hedgeResult;
+    private Exception hedgeError;
+
+    HedgedRequest(long delay, CancellationToken token, RequestTimings timings, Attempt attempt) {
+        this.delay = delay;
+        this.token = token;
+        this.timings = timings;
+        this.attempt = attempt;
+        this.primaryToken = token.child();
+    }
+
+    /**
+     * Sets the largest share of hedged requests that are sent twice
+     * @param percent between 0 and 100
+     */
+    static void setMaxRate(int percent) {
+        synchronized (BUDGET) {
+            maxRate = Math.min(Math.max(percent, 0), 100) / 100.0;
+        }
+    }
+
+    /**
+     * Returns how long to wait for a response before hedging a request, from its "hedge"
+     * option: true to derive the delay from the host's p95 latency, or an object with an
+     * explicit "delay" in milliseconds
+     * @return The delay, or -1 when the request is not hedged
+     */
+    static long getDelay(JSObject options, String method, URL url) {
+        Object hedge = options.opt("hedge");
+        if (hedge == null || Boolean.FALSE.equals(hedge)) {
+            return -1;
+        }
+        // Only requests without side effects may be sent twice
+        if (!method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS")) {
+            return -1;
+        }
+        if (hedge instanceof JSONObject && ((JSONObject) hedge).has("delay")) {
+            return Math.max(((JSONObject) hedge).optLong("delay", DEFAULT_DELAY), 0);
+        }
+        long p95 = HttpMetrics.getInstance().getPercentile(url, 0.95, MIN_SAMPLES);
+        return p95 > 0 ? p95 : DEFAULT_DELAY;
+    }
+
+    /**
+     * Sends the request, hedging it if no response arrives within the delay
+     * @return The response of the attempt that responded first
+     */
+    JSObject execute() throws IOException, URISyntaxException, JSONException {
+        synchronized (BUDGET) {
+            eligible.incrementAndGet();
+            tokens = Math.min(tokens + maxRate, MAX_TOKENS);
+        }
+
+        ScheduledFuture<?> timer = TIMER.schedule(this::hedge, delay, TimeUnit.MILLISECONDS);
+        boolean useHedge = false;
+        try {
+            RequestTimings primaryTimings = timings.fork();
+            JSObject response = attempt.send(primaryToken, primaryTimings, () -> respond(0));
+            timings.copyFrom(primaryTimings);
+            return response;
+        } catch (IOException e) {
+            token.throwIfCancelled();
+            useHedge = true;
+            return awaitHedge(e);
+        } finally {
+            timer.cancel(false);
+            if (!useHedge) {
+                cancelHedge();
+            }
+        }
+    }
+
+    /**
+     * Sends the hedge, unless the first attempt responded or failed meanwhile, or the budget is
+     * spent
+     */
+    private void hedge() {
+        synchronized (this) {
+            if (winner != -1 || primaryFailed) {
+                return;
+            }
+            synchronized (BUDGET) {
+                if (tokens < 1) {
+                    denied.incrementAndGet();
+                    return;
+                }
+                tokens--;
+            }
+            hedged.incrementAndGet();
+            hedgeToken = token.child();
+            hedgeTimings = timings.fork();
+        }
+
+        RequestDispatcher.getInstance().execute(() -> {
+            synchronized (this) {
+                // The first attempt may have settled while the hedge waited for a thread
+                if (winner == 0 || primaryFailed) {
+                    hedgeDone = true;
+                    notifyAll();
+                    return;
+                }
+                hedgeStarted = true;
+            }
+
+            JSObject result = null;
+            Exception error = null;
+            try {
+                result = attempt.send(hedgeToken, hedgeTimings, () -> respond(1));
+            } catch (Exception e) {
+                error = e;
+            }
+            synchronized (this) {
+                hedgeResult = result;
+                hedgeError = error;
+                hedgeDone = true;
+                notifyAll();
+            }
+        });
+    }
+
+    /**
+     * Makes the first attempt to respond the winner, cancelling the other one
+     */
+    private void respond(int attempt) {
+        CancellationToken loser;
+        synchronized (this) {
+            if (winner != -1) {
+                return;
+            }
+            winner = attempt;
+            loser = attempt == 0 ? hedgeToken : primaryToken;
+        }
+        if (attempt == 1) {
+            hedgeWins.incrementAndGet();
+        }
+        if (loser != null) {
+            loser.cancel();
+        }
+    }
+
+    private void cancelHedge() {
+        CancellationToken hedge;
+        synchronized (this) {
+            hedge = hedgeToken;
+        }
+        if (hedge != null) {
+            hedge.cancel();
+        }
+    }
+
+    /**
+     * Waits for the hedge after the first attempt failed, which is either because the hedge
+     * won or because of an error the hedge may not run into
+     */
+    private synchronized JSObject awaitHedge(IOException primaryError) throws IOException, URISyntaxException, JSONException {
+        primaryFailed = true;
+        if (hedgeToken == null || (!hedgeStarted && !hedgeDone)) {
+            // Not sent, or still waiting for a thread, in which case it will not start
+            throw primaryError;
+        }
+        while (!hedgeDone) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the hedged request");
+            }
+        }
+        if (hedgeResult != null) {
+            timings.copyFrom(hedgeTimings);
+            return hedgeResult;
+        }
+        if (winner != 1) {
+            throw primaryError;
+        }
+        if (hedgeError instanceof IOException) {
+            throw (IOException) hedgeError;
+        } else if (hedgeError instanceof JSONException) {
+            throw (JSONException) hedgeError;
+        } else if (hedgeError instanceof URISyntaxException) {
+            throw (URISyntaxException) hedgeError;
+        }
+        throw new RuntimeException(hedgeError);
+    }
+
+    static void resetCounters() {
+        eligible.set(0);
+        hedged.set(0);
+        hedgeWins.set(0);
+        denied.set(0);
+    }
+
+    /**
+     * Returns the number of requests that could be hedged, were hedged, were won by the hedge
+     * and were not hedged because the budget was spent
+     */
+    static JSObject countersToJSObject() {
+        JSObject output = new JSObject();
+        output.put("eligible", eligible.get());
+        output.put("hedged", hedged.get());
+        output.put("hedgeWins", hedgeWins.get());
+        output.put("denied", denied.get());
+        return output;
+    }
+}
@@ -0,0 +1,247 @@
+package com.getcapacitor.plugin.http;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides whether a request may be sent to its host now. Each host has a cap on concurrent
+ * requests, beyond which requests wait for a slot, and a circuit breaker: once too many recent
+ * requests failed, requests fail fast until a single probe succeeds. A 429 or 503 with
+ * Retry-After also fails the host's requests fast until the time it asked for.
+ */
+class HostAdmission {
+
+    static final int DEFAULT_MAX_PER_HOST = 6;
+    static final int DEFAULT_FAILURE_RATE = 50;
+    static final int DEFAULT_MIN_REQUESTS = 10;
+    static final long DEFAULT_OPEN_MILLIS = 30 * 1000;
+
+    // Outcomes the failure rate is computed over
+    static final int WINDOW = 20;
+    // Longest Retry-After honored, so a bad header cannot block a host for hours
+    static final long MAX_RETRY_AFTER = 5 * 60 * 1000;
+    // How often a request waiting for a slot checks whether it was cancelled
+    private static final long WAIT_SLICE_MILLIS = 250;
+
+    private static final HostAdmission INSTANCE = new HostAdmission();
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Map<String, Host> hosts = new HashMap<>();
+    private volatile int maxPerHost = DEFAULT_MAX_PER_HOST;
+    private volatile int failureRate = DEFAULT_FAILURE_RATE;
+    private volatile int minRequests = DEFAULT_MIN_REQUESTS;
+    private volatile long openMillis = DEFAULT_OPEN_MILLIS;
+
+    HostAdmission() {}
+
+    static HostAdmission getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param maxPerHost The most requests sent to a host at once
+     * @param failureRate The percentage of failed requests that opens the circuit
+     * @param minRequests The fewest requests the failure rate is computed over
+     * @param openMillis How long the circuit stays open before a probe is sent
+     */
+    void configure(int maxPerHost, int failureRate, int minRequests, long openMillis) {
+        this.maxPerHost = Math.max(maxPerHost, 1);
+        this.failureRate = failureRate;
+        this.minRequests = Math.min(Math.max(minRequests, 1), WINDOW);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Waits for a slot to send a request to the host of a URL
+     * @param url The URL of the request
+     * @param token The token of the request, which stops the wait when cancelled
+     * @return The permit to release once the response is read
+     * @throws HostUnavailableException thrown when the host is not admitting requests
+     * @throws RequestCancelledException thrown when the request is cancelled while waiting
+     */
+    Permit acquire(URL url, CancellationToken token) throws HostUnavailableException, RequestCancelledException {
+        String name = url.getHost() != null ? url.getHost().toLowerCase(Locale.ROOT) : "";
+        Host host;
+        synchronized (hosts) {
+            host = hosts.get(name);
+            if (host == null) {
+                host = new Host(name);
+                hosts.put(name, host);
+            }
+        }
+        return host.acquire(token);
+    }
+
+    /**
+     * A slot taken by a request, which records its outcome when released
+     */
+    class Permit {
+
+        private final Host host;
+        private final boolean probe;
+        private boolean released = false;
+
+        Permit(Host host, boolean probe) {
+            this.host = host;
+            this.probe = probe;
+        }
+
+        /**
+         * Releases the slot after a response, failed if it is a server error
+         * @param status The status of the response
+         * @param retryAfter The Retry-After header of the response, if any
+         */
+        void release(int status, String retryAfter) {
+            long wait = 0;
+            if ((status == 429 || status == 503) && retryAfter != null) {
+                wait = Math.min(RetryPolicy.parseRetryAfter(retryAfter), MAX_RETRY_AFTER);
+            }
+            complete(status >= 500, wait);
+        }
+
+        /**
+         * Releases the slot after a network error, which counts as a failure unless the
+         * request was cancelled, in which case no outcome is recorded
+         */
+        void release(Exception e) {
+            if (e instanceof RequestCancelledException) {
+                release();
+            } else {
+                complete(true, 0);
+            }
+        }
+
+        /**
+         * Releases the slot without recording an outcome, e.g. when the request was malformed
+         */
+        void release() {
+            synchronized (host) {
+                if (!released) {
+                    released = true;
+                    host.active--;
+                    if (probe) {
+                        // The probe never ran, so the next request probes instead
+                        host.probing = false;
+                    }
+                    host.notifyAll();
+                }
+            }
+        }
+
+        private void complete(boolean failed, long retryAfter) {
+            synchronized (host) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                host.active--;
+                host.notifyAll();
+                host.record(failed, retryAfter, probe);
+            }
+        }
+    }
+
+    private class Host {
+
+        final String name;
+        int active = 0;
+        State state = State.CLOSED;
+        long openUntil = 0;
+        boolean probing = false;
+        long blockedUntil = 0;
+        // The last outcomes, true for failures, as a ring of WINDOW entries
+        final boolean[] outcomes = new boolean[WINDOW];
+        int recorded = 0;
+        int next = 0;
+        int failures = 0;
+
+        Host(String name) {
+            this.name = name;
+        }
+
+        synchronized Permit acquire(CancellationToken token) throws HostUnavailableException, RequestCancelledException {
+            while (true) {
+                token.throwIfCancelled();
+                long now = System.currentTimeMillis();
+                if (blockedUntil > now) {
+                    throw new HostUnavailableException(name, "asked to retry later", blockedUntil - now);
+                }
+                if (state == State.OPEN) {
+                    if (now < openUntil) {
+                        throw new HostUnavailableException(name, "too many requests failed", openUntil - now);
+                    }
+                    state = State.HALF_OPEN;
+                }
+                if (state == State.HALF_OPEN && probing) {
+                    throw new HostUnavailableException(name, "waiting for a probe request", 0);
+                }
+
+                if (active < maxPerHost) {
+                    active++;
+                    boolean probe = state == State.HALF_OPEN;
+                    if (probe) {
+                        probing = true;
+                    }
+                    return new Permit(this, probe);
+                }
+                try {
+                    wait(WAIT_SLICE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RequestCancelledException(token.getRequestId());
+                }
+            }
+        }
+
+        /**
+         * Records the outcome of a request, opening or closing the circuit as needed
+         */
+        void record(boolean failed, long retryAfter, boolean probe) {
+            long now = System.currentTimeMillis();
+            if (retryAfter > 0) {
+                blockedUntil = Math.max(blockedUntil, now + retryAfter);
+            }
+
+            if (probe) {
+                probing = false;
+                if (failed) {
+                    open(now);
+                } else {
+                    state = State.CLOSED;
+                    recorded = 0;
+                    next = 0;
+                    failures = 0;
+                }
+                return;
+            } else if (state != State.CLOSED) {
+                // Admitted before the circuit opened, it says nothing about the host now
+                return;
+            }
+
+            if (recorded == WINDOW && outcomes[next]) {
+                failures--;
+            }
+            outcomes[next] = failed;
+            next = (next + 1) % WINDOW;
+            recorded = Math.min(recorded + 1, WINDOW);
+            if (failed) {
+                failures++;
+            }
+            if (recorded >= minRequests && failures * 100 >= failureRate * recorded) {
+                open(now);
+            }
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openUntil = now + openMillis;
+        }
+    }
+}
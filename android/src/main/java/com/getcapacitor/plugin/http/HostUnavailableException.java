@@ -0,0 +1,33 @@
+package com.getcapacitor.plugin.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown without sending a request when its host is not admitting requests: the circuit
+ * breaker is open after too many failures, or the host asked to wait with Retry-After
+ */
+public class HostUnavailableException extends IOException {
+
+    public static final String CODE = "HOST_UNAVAILABLE";
+
+    private final long retryAfter;
+
+    public HostUnavailableException(String host, String reason, long retryAfter) {
+        super("Host " + host + " is unavailable: " + reason);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long until the host admits requests again, in milliseconds, or 0 if unknown
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * The wait as the value of a Retry-After header, for {@link RetryPolicy#getDelay(int, String)}
+     */
+    String getRetryAfterHeader() {
+        return retryAfter > 0 ? String.valueOf((retryAfter + 999) / 1000) : null;
+    }
+}
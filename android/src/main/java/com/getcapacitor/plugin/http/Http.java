@@ -14,11 +14,18 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.io.File;
 import java.io.IOException;
 import java.net.HttpCookie;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Native HTTP Plugin
@@ -84,6 +91,9 @@ public class Http extends Plugin {
             case "uploadImage":
                 uploadImage(call);
                 break;
+            case "uploadImages":
+                uploadImages(call);
+                break;
         }
     }
 
@@ -99,27 +109,68 @@ public class Http extends Plugin {
     }
 
     private void http(final PluginCall call, final String httpMethod) {
+        // Registered before queueing so the request can be cancelled while it waits for a thread
+        final CancellationToken token = RequestRegistry.register(call.getString("requestId"));
+        final RequestTimings timings = RequestTimings.fromOptions(call.getData());
         Runnable asyncHttpCall = new Runnable() {
             @Override
             public void run() {
                 try {
-                    JSObject response = HttpRequestHandler.request(call, httpMethod);
+                    token.throwIfCancelled();
+                    JSObject response = HttpRequestHandler.request(call.getData(), httpMethod, token, timings);
                     call.resolve(response);
+                } catch (RequestCancelledException e) {
+                    call.reject(e.getMessage(), RequestCancelledException.CODE, e);
+                } catch (HostUnavailableException e) {
+                    call.reject(e.getMessage(), HostUnavailableException.CODE, e);
+                } catch (DeadlineExceededException e) {
+                    call.reject(e.getMessage(), DeadlineExceededException.CODE, e);
                 } catch (Exception e) {
                     System.out.println(e.toString());
                     call.reject(e.getClass().getSimpleName(), e);
+                } finally {
+                    RequestRegistry.unregister(token);
                 }
             }
         };
-        Thread httpThread = new Thread(asyncHttpCall);
-        httpThread.start();
+        RequestDispatcher.getInstance().execute(asyncHttpCall);
     }
 
     @Override
     public void load() {
-        this.cookieManager = new CapacitorCookieManager(null, java.net.CookiePolicy.ACCEPT_ALL);
+        if ("native".equals(getConfig().getString("cookieStore", "webview"))) {
+            NativeCookieStore store = new NativeCookieStore(new File(getContext().getFilesDir(), "http-cookies"));
+            boolean syncToWebView = getConfig().getBoolean("syncCookiesToWebView", false);
+            this.cookieManager = new CapacitorCookieManager(store, java.net.CookiePolicy.ACCEPT_ALL, syncToWebView);
+        } else {
+            this.cookieManager = new CapacitorCookieManager(null, java.net.CookiePolicy.ACCEPT_ALL);
+        }
         java.net.CookieHandler.setDefault(cookieManager);
         capConfig = getBridge().getConfig();
+        TlsSessionCache.getInstance().configure(
+            getConfig().getInt("tlsSessionCacheSize", TlsSessionCache.DEFAULT_CACHE_SIZE),
+            getConfig().getInt("tlsSessionTimeout", TlsSessionCache.DEFAULT_TIMEOUT_SECONDS)
+        );
+        HedgedRequest.setMaxRate(getConfig().getInt("maxHedgeRate", HedgedRequest.DEFAULT_MAX_RATE));
+        HostAdmission.getInstance().configure(
+            getConfig().getInt("maxRequestsPerHost", HostAdmission.DEFAULT_MAX_PER_HOST),
+            getConfig().getInt("circuitBreakerFailureRate", HostAdmission.DEFAULT_FAILURE_RATE),
+            getConfig().getInt("circuitBreakerMinRequests", HostAdmission.DEFAULT_MIN_REQUESTS),
+            getConfig().getInt("circuitBreakerOpenDuration", (int) HostAdmission.DEFAULT_OPEN_MILLIS)
+        );
+        RedirectCache.getInstance().configure(
+            getConfig().getInt("redirectCacheSize", RedirectCache.DEFAULT_MAX_SIZE),
+            getConfig().getBoolean("persistRedirects", false) ? new File(getContext().getFilesDir(), "http-redirects") : null
+        );
+        ImageCache.getInstance(getContext()).setMaxSize(getConfig().getInt("imageCacheSize", (int) ImageCache.DEFAULT_MAX_SIZE));
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        // Cookie writes waiting to be flushed could be lost if the app is killed in the background
+        cookieManager.flush();
+        RedirectCache.getInstance().save();
     }
 
     @PluginMethod
@@ -152,6 +203,20 @@ public class Http extends Plugin {
         this.http(call, "DELETE");
     }
 
+    @PluginMethod
+    public void batch(final PluginCall call) {
+        try {
+            JSArray requests = call.getArray("requests");
+            if (requests == null) {
+                call.reject("requests not provided");
+                return;
+            }
+            HttpRequestHandler.batch(call, result -> notifyListeners("batchResponse", result));
+        } catch (Exception ex) {
+            call.reject("Error", ex);
+        }
+    }
+
     @PluginMethod
     public void downloadFile(final PluginCall call) {
         try {
@@ -198,18 +263,127 @@ public class Http extends Plugin {
                         };
                 }
 
-                JSObject response = HttpRequestHandler.downloadFile(call, file, getContext(), emitter);
-                call.resolve(response);
+                // Run off the plugin thread so cancel() can be handled while the file downloads
+                final HttpRequestHandler.ProgressEmitter progressEmitter = emitter;
+                final CancellationToken token = RequestRegistry.register(call.getString("requestId"));
+                RequestDispatcher.getInstance().execute(() -> {
+                    try {
+                        token.throwIfCancelled();
+                        JSObject response = HttpRequestHandler.downloadFile(call, file, getContext(), progressEmitter, token);
+                        call.resolve(response);
+                    } catch (RequestCancelledException ex) {
+                        call.reject(ex.getMessage(), RequestCancelledException.CODE, ex);
+                    } catch (HostUnavailableException ex) {
+                        call.reject(ex.getMessage(), HostUnavailableException.CODE, ex);
+                    } catch (DeadlineExceededException ex) {
+                        call.reject(ex.getMessage(), DeadlineExceededException.CODE, ex);
+                    } catch (MalformedURLException ex) {
+                        call.reject("Invalid URL", ex);
+                    } catch (IOException ex) {
+                        call.reject("IO Error", ex);
+                    } catch (Exception ex) {
+                        call.reject("Error", ex);
+                    } finally {
+                        RequestRegistry.unregister(token);
+                    }
+                });
             }
-        } catch (MalformedURLException ex) {
-            call.reject("Invalid URL", ex);
-        } catch (IOException ex) {
-            call.reject("IO Error", ex);
         } catch (Exception ex) {
             call.reject("Error", ex);
         }
     }
 
+    @PluginMethod
+    public void stream(final PluginCall call) {
+        try {
+            EventStream.Format.parse(call.getString("format"));
+        } catch (IllegalArgumentException ex) {
+            call.reject(ex.getMessage());
+            return;
+        }
+
+        // A generated ID still tags the emitted events, though only a given one can be cancelled
+        final String requestId = call.getString("requestId", UUID.randomUUID().toString());
+        final CancellationToken token = RequestRegistry.register(requestId);
+        RequestDispatcher.getInstance().executeStream(() -> {
+            try {
+                EventStream stream = new EventStream(call.getData(), requestId, token, events -> notifyListeners("streamEvents", events));
+                call.resolve(stream.run());
+            } catch (RequestCancelledException e) {
+                call.reject(e.getMessage(), RequestCancelledException.CODE, e);
+            } catch (HostUnavailableException e) {
+                call.reject(e.getMessage(), HostUnavailableException.CODE, e);
+            } catch (DeadlineExceededException e) {
+                call.reject(e.getMessage(), DeadlineExceededException.CODE, e);
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e.getClass().getSimpleName(), e);
+            } finally {
+                RequestRegistry.unregister(token);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void preconnect(final PluginCall call) {
+        JSArray urls = call.getArray("urls");
+        if (urls == null) {
+            call.reject("urls not provided");
+            return;
+        }
+
+        List<URL> origins = new ArrayList<>();
+        // Compared as strings, as URL.equals() resolves the host names
+        List<String> seen = new ArrayList<>();
+        try {
+            for (String url : urls.<String>toList()) {
+                URL origin = Preconnector.originOf(url);
+                if (!seen.contains(origin.toString())) {
+                    seen.add(origin.toString());
+                    origins.add(origin);
+                }
+            }
+        } catch (JSONException | IOException ex) {
+            call.reject("Invalid URL", ex);
+            return;
+        }
+        new Preconnector(origins, call.getInt("timeout", Preconnector.DEFAULT_TIMEOUT), call::resolve).start();
+    }
+
+    @PluginMethod
+    public void setAuth(PluginCall call) {
+        JSArray urls = call.getArray("urls");
+        if (urls == null || urls.length() == 0) {
+            call.reject("urls not provided");
+            return;
+        }
+
+        try {
+            AuthInterceptor.getInstance().configure(call.getData(), result -> notifyListeners("tokenRefresh", result));
+            call.resolve();
+        } catch (JSONException ex) {
+            call.reject("Invalid urls", ex);
+        }
+    }
+
+    @PluginMethod
+    public void clearAuth(PluginCall call) {
+        AuthInterceptor.getInstance().clear();
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void cancel(PluginCall call) {
+        String requestId = call.getString("requestId");
+        if (requestId == null) {
+            call.reject("requestId not provided");
+            return;
+        }
+
+        JSObject result = new JSObject();
+        result.put("cancelled", RequestRegistry.cancel(requestId));
+        call.resolve(result);
+    }
+
     @PluginMethod
     public void uploadFile(PluginCall call) {
         try {
@@ -272,6 +446,51 @@ public class Http extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void uploadImages(PluginCall call) {
+        try {
+            JSArray uploads = call.getArray("uploads");
+            if (uploads == null || uploads.length() == 0) {
+                call.reject("uploads not provided");
+                return;
+            }
+
+            // Resolve every file up front so storage permission is requested at most once
+            List<File> files = new ArrayList<>();
+            boolean needsPermission = false;
+            for (int i = 0; i < uploads.length(); i++) {
+                JSONObject upload = uploads.getJSONObject(i);
+                File file = FilesystemUtils.getFileObject(
+                    getContext(),
+                    upload.optString("filePath", null),
+                    upload.optString("fileDirectory", call.getString("fileDirectory"))
+                );
+                files.add(file);
+                needsPermission |= file != null && FilesystemUtils.isPublicDirectory(file.getParent());
+            }
+
+            bridge.saveCall(call);
+
+            if (!needsPermission || isStoragePermissionGranted(call)) {
+                call.release(bridge);
+                HttpRequestHandler.uploadImages(call, files, getContext(), result -> notifyListeners("uploadComplete", result));
+            }
+        } catch (Exception ex) {
+            call.reject("Error", ex);
+        }
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        call.resolve(HttpMetrics.getInstance().toJSObject());
+    }
+
+    @PluginMethod
+    public void resetMetrics(PluginCall call) {
+        HttpMetrics.getInstance().reset();
+        call.resolve();
+    }
+
     @PluginMethod
     public void setCookie(PluginCall call) {
         String key = call.getString("key");
@@ -342,14 +561,57 @@ public class Http extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void setCookies(PluginCall call) {
+        JSArray cookies = call.getArray("cookies");
+        if (cookies == null) {
+            call.reject("cookies not provided");
+            return;
+        }
+
+        String url = getServerUrl(call);
+        if (!url.isEmpty()) {
+            try {
+                List<String> values = new ArrayList<>();
+                for (JSONObject cookie : cookies.<JSONObject>toList()) {
+                    values.add(cookie.getString("key") + "=" + cookie.getString("value"));
+                }
+                cookieManager.setCookies(url, values);
+                call.resolve();
+            } catch (JSONException ex) {
+                call.reject("Invalid cookies", ex);
+            }
+        }
+    }
+
+    @PluginMethod
+    public void deleteCookies(PluginCall call) {
+        JSArray keys = call.getArray("keys");
+        if (keys == null) {
+            call.reject("keys not provided");
+            return;
+        }
+
+        String url = getServerUrl(call);
+        if (!url.isEmpty()) {
+            try {
+                cookieManager.deleteCookies(url, keys.<String>toList());
+                call.resolve();
+            } catch (JSONException ex) {
+                call.reject("Invalid keys", ex);
+            }
+        }
+    }
+
     @PluginMethod
     public void clearCookies(PluginCall call) {
         String url = getServerUrl(call);
         if (!url.isEmpty()) {
-            HttpCookie[] cookies = cookieManager.getCookies(url);
-            for (HttpCookie cookie : cookies) {
-                cookieManager.setCookie(url, cookie.getName() + "=; Expires=Wed, 31 Dec 2000 23:59:59 GMT");
+            List<String> keys = new ArrayList<>();
+            for (HttpCookie cookie : cookieManager.getCookies(url)) {
+                keys.add(cookie.getName());
             }
+            cookieManager.deleteCookies(url, keys);
             call.resolve();
         }
     }
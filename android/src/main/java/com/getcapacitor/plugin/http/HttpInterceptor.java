@@ -0,0 +1,51 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import org.json.JSONException;
+
+/**
+ * Observes and rewrites requests natively, before they are sent and after their response
+ * arrives, without going through JavaScript. Interceptors run around every request and upload,
+ * in the order they were added with {@link InterceptorChain#add(HttpInterceptor)}, and may send
+ * a request again, e.g. to retry it with new credentials.
+ */
+@FunctionalInterface
+public interface HttpInterceptor {
+    /**
+     * Intercepts one request
+     * @param chain The request, whose {@link Chain#proceed()} sends it through the next interceptors
+     * @return The response, usually the one returned by {@link Chain#proceed()}
+     */
+    JSObject intercept(Chain chain) throws IOException, URISyntaxException, JSONException;
+
+    interface Chain {
+        /**
+         * The URL of the request, without the params of its options
+         */
+        URL url();
+
+        String method();
+
+        /**
+         * Headers set on top of those of the request's options, which interceptors may add to
+         * before calling {@link #proceed()}
+         */
+        JSObject headers();
+
+        /**
+         * The token of the request, cancelled when the request is cancelled or past its deadline.
+         * Interceptors that wait, e.g. for new credentials, should give up once it is.
+         */
+        CancellationToken token();
+
+        /**
+         * Sends the request through the next interceptors, on a new connection each time it is
+         * called
+         * @return The response, with the same fields as the one returned to JavaScript
+         */
+        JSObject proceed() throws IOException, URISyntaxException, JSONException;
+    }
+}
@@ -0,0 +1,208 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregated counters and latency histograms of everything the plugin sends, cheap enough to
+ * stay on for every request. Read with {@link #toJSObject()}, cleared with {@link #reset()}.
+ */
+public class HttpMetrics {
+
+    /** Hosts beyond this many share one histogram, so memory stays bounded */
+    static final int MAX_HOSTS = 50;
+    static final String OTHER_HOSTS = "other";
+
+    private static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx", "error", "cancelled" };
+    private static final int ERROR = 5;
+    private static final int CANCELLED = 6;
+
+    private static final HttpMetrics INSTANCE = new HttpMetrics();
+
+    private final AtomicLongArray requests = new AtomicLongArray(STATUS_CLASSES.length);
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final ConcurrentHashMap<String, LatencyHistogram> hosts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> uploadStages = new ConcurrentHashMap<>();
+
+    HttpMetrics() {}
+
+    public static HttpMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a request that got a response
+     * @param url The URL of the request
+     * @param status The status code of the response
+     * @param startNanos When the request started, from {@link System#nanoTime()}
+     */
+    public void recordResponse(URL url, int status, long startNanos) {
+        int statusClass = status / 100 - 1;
+        requests.incrementAndGet(statusClass >= 0 && statusClass < ERROR ? statusClass : ERROR);
+        getHost(url).record(elapsedMillis(startNanos));
+    }
+
+    /**
+     * Records a request that failed without a response, e.g. a network error
+     */
+    public void recordError(URL url, long startNanos) {
+        requests.incrementAndGet(ERROR);
+        getHost(url).record(elapsedMillis(startNanos));
+    }
+
+    /**
+     * Records a request that was cancelled, or aborted at its deadline, before it completed.
+     * Its latency is not recorded, as it says nothing about the host.
+     */
+    public void recordCancelled() {
+        requests.incrementAndGet(CANCELLED);
+    }
+
+    /**
+     * Records how long a stage of an upload took, e.g. "resize" or "upload"
+     */
+    public void recordUploadStage(String stage, long startNanos) {
+        LatencyHistogram histogram = uploadStages.get(stage);
+        if (histogram == null) {
+            uploadStages.putIfAbsent(stage, new LatencyHistogram());
+            histogram = uploadStages.get(stage);
+        }
+        histogram.record(elapsedMillis(startNanos));
+    }
+
+    /**
+     * Returns a percentile of the latency of a host's requests
+     * @param url A URL of the host
+     * @param percentile between 0 and 1
+     * @param minCount The fewest recorded requests the percentile is trusted for
+     * @return The latency in milliseconds, or -1 when fewer requests were recorded
+     */
+    long getPercentile(URL url, double percentile, long minCount) {
+        LatencyHistogram histogram = url != null && url.getHost() != null ? hosts.get(url.getHost()) : null;
+        return histogram != null && histogram.getCount() >= minCount ? histogram.getPercentile(percentile) : -1;
+    }
+
+    public void addBytesIn(long bytes) {
+        bytesIn.addAndGet(bytes);
+    }
+
+    public void addBytesOut(long bytes) {
+        bytesOut.addAndGet(bytes);
+    }
+
+    /**
+     * Wraps a response stream so every byte read from it is counted
+     */
+    public InputStream countIn(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) addBytesIn(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) addBytesIn(read);
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Wraps a request stream so every byte written to it is counted
+     */
+    public OutputStream countOut(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                addBytesOut(1);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                out.write(buffer, offset, length);
+                addBytesOut(length);
+            }
+        };
+    }
+
+    public void reset() {
+        for (int i = 0; i < requests.length(); i++) {
+            requests.set(i, 0);
+        }
+        bytesIn.set(0);
+        bytesOut.set(0);
+        hosts.clear();
+        uploadStages.clear();
+        TlsSessionCache.getInstance().reset();
+        HedgedRequest.resetCounters();
+    }
+
+    /**
+     * Returns a snapshot of every metric, along with the current depth of the request and
+     * upload queues
+     */
+    public JSObject toJSObject() {
+        JSObject requestsOutput = new JSObject();
+        long total = 0;
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            long count = requests.get(i);
+            requestsOutput.put(STATUS_CLASSES[i], count);
+            total += count;
+        }
+        requestsOutput.put("total", total);
+
+        JSObject output = new JSObject();
+        output.put("requests", requestsOutput);
+        output.put("bytesIn", bytesIn.get());
+        output.put("bytesOut", bytesOut.get());
+        output.put("hosts", toJSObject(hosts));
+        output.put("uploadStages", toJSObject(uploadStages));
+        output.put("tls", TlsSessionCache.getInstance().toJSObject());
+        output.put("hedging", HedgedRequest.countersToJSObject());
+        output.put("queues", new JSObject()
+            .put("requests", RequestDispatcher.getInstance().getMetrics())
+            .put("uploads", UploadQueue.getInstance().getMetrics()));
+        return output;
+    }
+
+    private static JSObject toJSObject(Map<String, LatencyHistogram> histograms) {
+        JSObject output = new JSObject();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            output.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+        return output;
+    }
+
+    private LatencyHistogram getHost(URL url) {
+        String host = url != null && url.getHost() != null ? url.getHost() : OTHER_HOSTS;
+        LatencyHistogram histogram = hosts.get(host);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (hosts.size() >= MAX_HOSTS) {
+            host = OTHER_HOSTS;
+        }
+        hosts.putIfAbsent(host, new LatencyHistogram());
+        return hosts.get(host);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
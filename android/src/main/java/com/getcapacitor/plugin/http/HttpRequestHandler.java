@@ -7,13 +7,22 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.ProtocolException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import org.json.JSONArray;
 import org.json.JSONException;
 
 public class HttpRequestHandler {
+    private static final int DEFAULT_BATCH_CONCURRENCY = 6;
+
     /**
      * Makes an Http Request based on the PluginCall parameters
      * @param call The Capacitor PluginCall that contains the options need for an Http request
@@ -23,16 +32,91 @@ public class HttpRequestHandler {
      * @throws JSONException thrown when the incoming JSON is malformed
      */
     public static JSObject request(PluginCall call, String httpMethod) throws IOException, URISyntaxException, JSONException {
-        String urlString = call.getString("url", "");
-        JSObject headers = call.getObject("headers");
-        JSObject params = call.getObject("params");
-        Integer connectTimeout = call.getInt("connectTimeout");
-        Integer readTimeout = call.getInt("readTimeout");
-        Boolean disableRedirects = call.getBoolean("disableRedirects");
-        Boolean shouldEncode = call.getBoolean("shouldEncodeUrlParams", true);
-        ResponseType responseType = ResponseType.parse(call.getString("responseType"));
+        return request(call.getData(), httpMethod);
+    }
+
+    /**
+     * Makes an Http Request based on the given options, e.g. an entry of a batch
+     * @param options The options of the Http request, in the same format as a PluginCall's
+     * @param httpMethod The HTTP method that overrides the options' HTTP method
+     * @throws IOException throws an IO request when a connection can't be made
+     * @throws URISyntaxException thrown when the URI is malformed
+     * @throws JSONException thrown when the incoming JSON is malformed
+     */
+    public static JSObject request(JSObject options, String httpMethod) throws IOException, URISyntaxException, JSONException {
+        return request(options, httpMethod, new CancellationToken(null), RequestTimings.fromOptions(options));
+    }
+
+    /**
+     * Makes an Http Request based on the given options, aborting it when {@code token} is cancelled
+     * @param options The options of the Http request, in the same format as a PluginCall's
+     * @param httpMethod The HTTP method that overrides the options' HTTP method
+     * @param token The token used to cancel the request
+     * @param timings The timings of the request, started when it was queued
+     * @throws RequestCancelledException thrown when the request is cancelled before it completes
+     * @throws DeadlineExceededException thrown when the request does not complete within its deadline
+     * @throws IOException throws an IO request when a connection can't be made
+     * @throws URISyntaxException thrown when the URI is malformed
+     * @throws JSONException thrown when the incoming JSON is malformed
+     */
+    public static JSObject request(JSObject options, String httpMethod, CancellationToken token, RequestTimings timings)
+        throws IOException, URISyntaxException, JSONException {
+        timings.markStarted();
+        String method = httpMethod != null ? httpMethod.toUpperCase() : Objects.requireNonNull(options.getString("method", "")).toUpperCase();
+        URL url = new URL(options.getString("url", ""));
+        long hedgeDelay = HedgedRequest.getDelay(options, method, url);
+        // The deadline covers every attempt the interceptors and hedging make
+        return Deadline.enforce(options, token, callToken ->
+            InterceptorChain.execute(url, method, callToken, headers -> {
+                if (hedgeDelay < 0) {
+                    return send(options, method, headers, callToken, timings);
+                }
+                HedgedRequest.Attempt attempt = (attemptToken, attemptTimings, onResponse) ->
+                    send(options, method, headers, attemptToken, attemptTimings, onResponse);
+                return new HedgedRequest(hedgeDelay, callToken, timings, attempt).execute();
+            })
+        );
+    }
 
-        String method = httpMethod != null ? httpMethod.toUpperCase() : Objects.requireNonNull(call.getString("method", "")).toUpperCase();
+    /**
+     * Sends an Http Request once on a new connection, without going through the interceptors
+     * @param options The options of the Http request, in the same format as a PluginCall's
+     * @param method The HTTP method of the request
+     * @param extraHeaders Headers set on top of those of the options
+     * @param token The token used to cancel the request
+     * @param timings The timings of the request
+     * @throws RequestCancelledException thrown when the request is cancelled before it completes
+     * @throws IOException throws an IO request when a connection can't be made
+     * @throws URISyntaxException thrown when the URI is malformed
+     * @throws JSONException thrown when the incoming JSON is malformed
+     */
+    static JSObject send(JSObject options, String method, JSObject extraHeaders, CancellationToken token, RequestTimings timings)
+        throws IOException, URISyntaxException, JSONException {
+        return send(options, method, extraHeaders, token, timings, null);
+    }
+
+    /**
+     * Sends an Http Request once, notifying {@code onResponse} as soon as the status and headers
+     * of the response are received, before its body is read
+     */
+    private static JSObject send(
+        JSObject options,
+        String method,
+        JSObject extraHeaders,
+        CancellationToken token,
+        RequestTimings timings,
+        Runnable onResponse
+    ) throws IOException, URISyntaxException, JSONException {
+        String urlString = options.getString("url", "");
+        JSObject headers = options.getJSObject("headers");
+        JSObject params = options.getJSObject("params");
+        Integer connectTimeout = options.getInteger("connectTimeout");
+        Integer readTimeout = options.getInteger("readTimeout");
+        Boolean disableRedirects = options.getBool("disableRedirects");
+        Boolean shouldEncode = options.getBoolean("shouldEncodeUrlParams", true);
+        ResponseType responseType = ResponseType.parse(options.getString("responseType"));
+        boolean rawJson = options.getBoolean("rawJson", false);
+        JsonProjection select = JsonProjection.fromOption(options.opt("select"));
 
         boolean isHttpMutate = method.equals("DELETE") || method.equals("PATCH") || method.equals("POST") || method.equals("PUT");
 
@@ -48,19 +132,252 @@ public class HttpRequestHandler {
             .openConnection();
 
         CapacitorHttpUrlConnection connection = connectionBuilder.build();
+        connection.setRequestHeaders(extraHeaders);
+        // Redirects are followed here rather than by the connection, to learn the permanent ones
+        boolean followRedirects = !Boolean.TRUE.equals(disableRedirects) && RedirectCache.getInstance().isEnabled();
+        if (followRedirects) {
+            connection.setDisableRedirects(true);
+        }
+        Hop hop = new Hop(connection, HostAdmission.getInstance().acquire(url, token));
+        token.attach(connection.getHttpConnection());
 
-        // Set HTTP body on a non GET or HEAD request
-        if (isHttpMutate) {
-            JSValue data = new JSValue(call, "data");
-            if (data.getValue() != null) {
+        long start = System.nanoTime();
+        try {
+            // Set HTTP body on a non GET or HEAD request
+            JSValue data = null;
+            if (isHttpMutate) {
+                data = new JSValue(options, "data");
+                if (data.getValue() != null) {
+                    connection.setDoOutput(true);
+                    connection.setRequestBody(data);
+                } else {
+                    data = null;
+                }
+            }
+
+            connection.connect();
+            if (followRedirects) {
+                followRedirects(hop, options, method, data, extraHeaders, token);
+                connection = hop.connection;
+            }
+            timings.markConnected();
+            if (onResponse != null) {
+                connection.getResponseCode();
+                onResponse.run();
+            }
+
+            // Recorded against the host that sent the response, wherever the redirects led
+            JSObject response = HttpResponseBuilder.buildResponse(connection, responseType, rawJson, select, timings);
+            int status = response.getInteger("status", 0);
+            HttpMetrics.getInstance().recordResponse(connection.getURL(), status, start);
+            RedirectCache.getInstance().onResponse(connection, status);
+            hop.permit.release(status, connection.getHeaderField("Retry-After"));
+            return response;
+        } catch (HostUnavailableException e) {
+            // A redirect led to a host not admitting requests, which sent nothing to fail
+            throw e;
+        } catch (IOException e) {
+            throw failed(e, token, hop.connection.getURL(), start, hop.connection.getRedirectedFrom(), hop.permit);
+        } finally {
+            hop.permit.release();
+        }
+    }
+
+    /**
+     * The connection of the redirect a request is at, and the permit of its host
+     */
+    private static class Hop {
+
+        CapacitorHttpUrlConnection connection;
+        HostAdmission.Permit permit;
+
+        Hop(CapacitorHttpUrlConnection connection, HostAdmission.Permit permit) {
+            this.connection = connection;
+            this.permit = permit;
+        }
+    }
+
+    /**
+     * Accounts for a request that failed without a response. Disconnecting a cancelled request
+     * surfaces as whatever error the blocked read or write hit; such a request, e.g. a hedge that
+     * lost or one past its deadline, says nothing about the host, so it is neither a network
+     * error, nor a failure of the host, nor a reason to forget the redirect it was sent through.
+     * @param e The error the request failed with
+     * @param token The token of the request
+     * @param url The URL of the request
+     * @param start When the request started, from {@link System#nanoTime()}
+     * @param redirectedFrom The URL the request was redirected from by the redirect cache, if any
+     * @param permit The permit of the request's host
+     * @return The error to throw, a {@link RequestCancelledException} if the request was cancelled
+     */
+    static IOException failed(
+        IOException e,
+        CancellationToken token,
+        URL url,
+        long start,
+        URL redirectedFrom,
+        HostAdmission.Permit permit
+    ) {
+        if (token.isCancelled()) {
+            HttpMetrics.getInstance().recordCancelled();
+            permit.release();
+            return e instanceof RequestCancelledException ? e : new RequestCancelledException(token.getRequestId());
+        }
+        HttpMetrics.getInstance().recordError(url, start);
+        if (redirectedFrom != null) {
+            RedirectCache.getInstance().invalidate(redirectedFrom);
+        }
+        permit.release(e);
+        return e;
+    }
+
+    /**
+     * Follows the redirects of a response the way HttpURLConnection does, remembering the
+     * permanent ones so later requests skip them. 301, 302 and 303 are followed with a GET
+     * without the body, unless the request was a HEAD; 307 and 308 with the same method and
+     * body. Redirects between HTTP and HTTPS are not followed, and neither the Authorization
+     * header nor the one set by {@code setAuth()} is sent to another host. A redirect to another
+     * host releases the permit of the host it leaves, with the redirect as its response, and
+     * waits for a permit of the host it goes to.
+     * @param current The connection of the request, connected, and the permit of its host; moved
+     * to each redirect as it is followed, ending at the response that is not a redirect to follow
+     * @param data The body of the request, or null if it has none
+     * @throws ProtocolException thrown when there are more than {@link RedirectCache#MAX_HOPS} redirects
+     * @throws HostUnavailableException thrown when a redirect leads to a host not admitting requests
+     */
+    private static void followRedirects(
+        Hop current,
+        JSObject options,
+        String method,
+        JSValue data,
+        JSObject extraHeaders,
+        CancellationToken token
+    ) throws IOException, JSONException {
+        CapacitorHttpUrlConnection connection = current.connection;
+        URL requested = connection.getRedirectedFrom();
+        for (int hop = 0; ; hop++) {
+            int status = connection.getResponseCode();
+            String location = connection.getHeaderField("Location");
+            if (status < 300 || status > 308 || status == 304 || status == 305 || status == 306 || location == null) {
+                break;
+            }
+            URL from = connection.getURL();
+            URL to = new URL(from, location);
+            if (!to.getProtocol().equals(from.getProtocol())) {
+                break;
+            }
+            if (hop == RedirectCache.MAX_HOPS) {
+                throw new ProtocolException("Too many redirects: " + (hop + 1));
+            }
+            if (RedirectCache.isPermanent(status) && RedirectCache.isCacheable(connection.getHeaderField("Cache-Control"))) {
+                RedirectCache.getInstance().put(from, to, status);
+            }
+            discard(connection);
+
+            if (status != 307 && status != 308) {
+                method = method.equals("HEAD") ? "HEAD" : "GET";
+                data = null;
+            }
+            JSObject headers = options.getJSObject("headers");
+            boolean sameHost = to.getHost().equalsIgnoreCase(from.getHost());
+            if (!sameHost) {
+                current.permit.release(status, connection.getHeaderField("Retry-After"));
+                current.permit = HostAdmission.getInstance().acquire(to, token);
+            }
+            connection = new HttpURLConnectionBuilder()
+                .setUrl(to)
+                .setMethod(method)
+                .setHeaders(sameHost ? headers : withoutCredentials(headers))
+                .setConnectTimeout(options.getInteger("connectTimeout"))
+                .setReadTimeout(options.getInteger("readTimeout"))
+                .setDisableRedirects(true)
+                .openConnection()
+                .build();
+            connection.setRequestHeaders(sameHost ? extraHeaders : withoutCredentials(extraHeaders));
+            // Errors at the end of the redirects say nothing about a cached one they started from
+            connection.setRedirectedFrom(requested);
+            current.connection = connection;
+            token.attach(connection.getHttpConnection());
+            if (data != null) {
                 connection.setDoOutput(true);
-                connection.setRequestBody(call, data);
+                connection.setRequestBody(data);
             }
+            connection.connect();
         }
+    }
 
-        connection.connect();
+    /**
+     * Reads a redirect's body to its end, so its connection is pooled rather than closed
+     */
+    private static void discard(CapacitorHttpUrlConnection connection) {
+        try (InputStream body = connection.getInputStream()) {
+            byte[] buffer = new byte[1024];
+            while (body.read(buffer) != -1) {
+                // Redirect bodies are rarely more than a short HTML page
+            }
+        } catch (IOException e) {
+            connection.getHttpConnection().disconnect();
+        }
+    }
 
-        return HttpResponseBuilder.buildResponse(connection, responseType);
+    private static JSObject withoutCredentials(JSObject headers) {
+        if (headers == null) {
+            return null;
+        }
+        String authHeader = AuthInterceptor.getInstance().getHeader();
+        JSObject copy = new JSObject();
+        Iterator<String> keys = headers.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!key.equalsIgnoreCase("Authorization") && !key.equalsIgnoreCase(authHeader)) {
+                copy.put(key, headers.opt(key));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Executes every entry of the PluginCall's "requests" array natively, resolving the call
+     * once all of them have completed. Top-level options of the call apply to every request
+     * unless the entry overrides them.
+     * @param call The Capacitor PluginCall that contains the batch options
+     * @param emitter Notified as each request completes when the "stream" option is set
+     * @throws JSONException thrown when a request entry is malformed
+     */
+    public static void batch(PluginCall call, ResultEmitter emitter) throws JSONException {
+        List<JSObject> options = getBatchEntries(call.getData(), "requests", "batchId", "concurrency", "stream");
+        RequestBatch batch = new RequestBatch(
+            (entry, token, timings) -> request(entry, null, token, timings),
+            call::resolve,
+            call.getString("batchId", UUID.randomUUID().toString()),
+            options,
+            Boolean.TRUE.equals(call.getBoolean("stream", false)),
+            emitter
+        );
+        batch.start(call.getInt("concurrency", DEFAULT_BATCH_CONCURRENCY));
+    }
+
+    /**
+     * Returns the entries of a batch with the top-level options applied to each, unless the
+     * entry overrides them
+     * @param options The options of the batch
+     * @param entriesKey The key of the array of entries
+     * @param batchKeys The keys of options that apply to the batch itself, not to its entries
+     * @throws JSONException thrown when an entry is not an object
+     */
+    static List<JSObject> getBatchEntries(JSObject options, String entriesKey, String... batchKeys) throws JSONException {
+        JSObject defaults = UploadTask.merge(options, null);
+        defaults.remove(entriesKey);
+        for (String key : batchKeys) {
+            defaults.remove(key);
+        }
+
+        JSONArray array = options.optJSONArray(entriesKey);
+        List<JSObject> entries = new ArrayList<>();
+        for (int i = 0; array != null && i < array.length(); i++) {
+            entries.add(UploadTask.merge(defaults, JSObject.fromJSONObject(array.getJSONObject(i))));
+        }
+        return entries;
     }
 
     /**
@@ -68,10 +385,18 @@ public class HttpRequestHandler {
      * @param call The Capacitor PluginCall that contains the options need for an Http request
      * @param context The Android Context required for writing to the filesystem
      * @param progress The emitter which notifies listeners on downloading progression
+     * @param token The token used to cancel the download
+     * @throws RequestCancelledException thrown when the download is cancelled, the partial file is deleted
+     * @throws DeadlineExceededException thrown when the download does not complete within its deadline
      * @throws IOException throws an IO request when a connection can't be made
      * @throws URISyntaxException thrown when the URI is malformed
      */
-    public static JSObject downloadFile(PluginCall call, File file, Context context, ProgressEmitter progress)
+    public static JSObject downloadFile(PluginCall call, File file, Context context, ProgressEmitter progress, CancellationToken token)
+        throws IOException, URISyntaxException, JSONException {
+        return Deadline.enforce(call.getData(), token, callToken -> download(call, file, progress, callToken));
+    }
+
+    private static JSObject download(PluginCall call, File file, ProgressEmitter progress, CancellationToken token)
         throws IOException, URISyntaxException, JSONException {
         String urlString = call.getString("url");
         String method = Objects.requireNonNull(call.getString("method", "GET")).toUpperCase();
@@ -91,7 +416,35 @@ public class HttpRequestHandler {
             .setReadTimeout(readTimeout)
             .openConnection();
 
-        ICapacitorHttpUrlConnection connection = connectionBuilder.build();
+        CapacitorHttpUrlConnection connection = connectionBuilder.build();
+        HostAdmission.Permit permit = HostAdmission.getInstance().acquire(url, token);
+        token.attach(connection.getHttpConnection());
+
+        long start = System.nanoTime();
+        try {
+            JSObject result = writeDownload(connection, file, progress, token);
+            // Downloads follow redirects within the connection, which reports where they ended
+            HttpMetrics.getInstance().recordResponse(connection.getURL(), connection.getResponseCode(), start);
+            RedirectCache.getInstance().onResponse(connection, connection.getResponseCode());
+            permit.release(connection.getResponseCode(), connection.getHeaderField("Retry-After"));
+            return result;
+        } catch (IOException e) {
+            IOException error = failed(e, token, url, start, connection.getRedirectedFrom(), permit);
+            // Don't leave a truncated file behind
+            if (error instanceof RequestCancelledException) {
+                file.delete();
+            }
+            throw error;
+        } finally {
+            permit.release();
+        }
+    }
+
+    /**
+     * Streams the response body to {@code file}, checking for cancellation between reads
+     */
+    private static JSObject writeDownload(ICapacitorHttpUrlConnection connection, File file, ProgressEmitter progress, CancellationToken token)
+        throws IOException {
         InputStream connectionInputStream = connection.getInputStream();
 
         FileOutputStream fileOutputStream = new FileOutputStream(file, false);
@@ -108,16 +461,20 @@ public class HttpRequestHandler {
         byte[] buffer = new byte[1024];
         int len;
 
-        while ((len = connectionInputStream.read(buffer)) > 0) {
-            fileOutputStream.write(buffer, 0, len);
+        try {
+            while ((len = connectionInputStream.read(buffer)) > 0) {
+                token.throwIfCancelled();
+                fileOutputStream.write(buffer, 0, len);
+                HttpMetrics.getInstance().addBytesIn(len);
 
-            bytes += len;
-            progress.emit(bytes, maxBytes);
+                bytes += len;
+                progress.emit(bytes, maxBytes);
+            }
+        } finally {
+            connectionInputStream.close();
+            fileOutputStream.close();
         }
 
-        connectionInputStream.close();
-        fileOutputStream.close();
-
         return new JSObject() {
             {
                 assert file != null;
@@ -133,30 +490,9 @@ public class HttpRequestHandler {
      */
     private static void performUpload(PluginCall call, File file, Context context) {
         try {
-            CapacitorHttpUrlConnection connection = new HttpURLConnectionBuilder()
-                    .setUrl(new URL(call.getString("url")))
-                    .setMethod(Objects.requireNonNull(call.getString("method", "POST")).toUpperCase())
-                    .setHeaders(call.getObject("headers"))
-                    .setUrlParams(call.getObject("params"))
-                    .setConnectTimeout(call.getInt("connectTimeout"))
-                    .setReadTimeout(call.getInt("readTimeout"))
-                    .openConnection()
-                    .build();
-
-            connection.setDoOutput(true);
-
-            // Create upload task
-            UploadTask task = new UploadTask(
-                connection,
+            UploadTask task = createUploadTask(
+                call.getData(),
                 file,
-                call.getObject("data", new JSObject()),
-                call.getObject("resize"),
-                call.getString("id", UUID.randomUUID().toString()),
-                call.getString("name", "file"),
-                call.getString("widthHeader", "X-Image-Width"),
-                call.getString("heightHeader", "X-Image-Height"),
-                call.getString("sizeHeader", "X-File-Size"),
-                ResponseType.parse(call.getString("responseType")),
                 context,
                 new UploadTaskCallback() {
                     @Override
@@ -173,11 +509,132 @@ public class HttpRequestHandler {
 
             // Add to queue
             UploadQueue.getInstance().addUpload(task);
+        } catch (JSONException e) {
+            call.reject(e.getMessage(), e);
         } catch (Exception e) {
             call.reject("Error", e);
         }
     }
 
+    /**
+     * Creates the task that uploads a single file
+     * @param options The upload options (url, method, headers, data, resize, variants, ...)
+     * @param file The file to upload
+     * @param context Application environment context
+     * @param callback Notified when the upload succeeds or fails
+     * @throws JSONException thrown when the variants are malformed or an image format is not supported
+     */
+    static UploadTask createUploadTask(JSObject options, File file, Context context, UploadTaskCallback callback)
+        throws JSONException {
+        String method = Objects.requireNonNull(options.getString("method", "POST")).toUpperCase();
+        JSObject headers = options.getJSObject("headers");
+        JSObject params = options.getJSObject("params");
+        Integer connectTimeout = options.getInteger("connectTimeout");
+        Integer readTimeout = options.getInteger("readTimeout");
+
+        // Connections are opened when the task runs, one per request it makes
+        UploadTask.ConnectionFactory connectionFactory = url -> {
+            CapacitorHttpUrlConnection connection = new HttpURLConnectionBuilder()
+                .setUrl(new URL(url))
+                .setMethod(method)
+                .setHeaders(headers)
+                .setUrlParams(params)
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout)
+                .openConnection()
+                .build();
+
+            connection.setDoOutput(true);
+            return connection;
+        };
+
+        // A stable key lets the server de-duplicate attempts that reached it before failing
+        String id = options.getString("id", UUID.randomUUID().toString());
+        RetryPolicy retryPolicy = RetryPolicy.fromOptions(options.getJSObject("retry"));
+        String idempotencyKey = options.getString("idempotencyKey", retryPolicy.isEnabled() ? id : null);
+
+        return new UploadTask(
+            options.getString("url"),
+            method,
+            connectionFactory,
+            file,
+            options.getJSObject("data", new JSObject()),
+            checkFormat(options.getJSObject("resize")),
+            getVariants(options),
+            "separate".equals(options.getString("variantsMode")),
+            id,
+            options.getString("name", "file"),
+            options.getString("widthHeader", "X-Image-Width"),
+            options.getString("heightHeader", "X-Image-Height"),
+            options.getString("sizeHeader", "X-File-Size"),
+            ResponseType.parse(options.getString("responseType")),
+            retryPolicy,
+            options.getString("idempotencyKeyHeader", "Idempotency-Key"),
+            idempotencyKey,
+            Deadline.fromOptions(options),
+            context,
+            callback
+        );
+    }
+
+    /**
+     * Reads the image variants of an upload from its options, if any. Every variant gets a
+     * name, used as its part name and in its idempotency key: a single variant without one is
+     * named after the "name" option, several are numbered, e.g. file_0 and file_1.
+     * @param options The upload options
+     * @return the variant options in request order, or null if none were given
+     * @throws JSONException thrown when a variant is not an object, has an unsupported format or
+     * has the same name as another
+     */
+    static List<JSObject> getVariants(JSObject options) throws JSONException {
+        JSONArray array = options.optJSONArray("variants");
+        if (array == null) {
+            return null;
+        }
+
+        List<JSObject> variants = new ArrayList<>();
+        int unnamed = 0;
+        for (int i = 0; i < array.length(); i++) {
+            JSObject variant = checkFormat(JSObject.fromJSONObject(array.getJSONObject(i)));
+            if (variant.getString("name") == null) {
+                unnamed++;
+            }
+            variants.add(variant);
+        }
+
+        String paramName = options.getString("name", "file");
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < variants.size(); i++) {
+            JSObject variant = variants.get(i);
+            if (variant.getString("name") == null) {
+                variant.put("name", unnamed == 1 ? paramName : paramName + "_" + i);
+            }
+            // Parts and idempotency keys of variants with the same name would overwrite each other
+            if (!names.add(variant.getString("name"))) {
+                throw new JSONException("Duplicate variant name: " + variant.getString("name"));
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Checks the image format of resize options when the upload is made, so an unsupported one
+     * rejects it even if the image turns out to need no re-encoding
+     * @param resize The resize options, or null
+     * @return The resize options
+     * @throws JSONException thrown when the format is not supported
+     */
+    private static JSObject checkFormat(JSObject resize) throws JSONException {
+        if (resize != null) {
+            try {
+                ImageFormat.parse(resize.optString("format", "jpg"));
+            } catch (IllegalArgumentException e) {
+                throw new JSONException(e.getMessage());
+            }
+        }
+        return resize;
+    }
+
     public static void uploadFile(PluginCall call, File file, Context context) {
         performUpload(call, file, context);
     }
@@ -186,8 +643,50 @@ public class HttpRequestHandler {
         performUpload(call, file, context);
     }
 
+    /**
+     * Queues one upload per entry of the PluginCall's "uploads" array. Top-level options of the
+     * call apply to every upload unless the entry overrides them.
+     * @param call The Capacitor PluginCall that contains the batch options
+     * @param files The resolved file of each upload, null if it could not be found
+     * @param context Application environment context
+     * @param emitter Notified as each upload completes
+     * @throws JSONException thrown when an upload entry is malformed
+     */
+    public static void uploadImages(PluginCall call, List<File> files, Context context, ResultEmitter emitter)
+        throws JSONException {
+        List<JSObject> entries = getBatchEntries(call.getData(), "uploads", "batchId");
+        UploadBatch batch = new UploadBatch(call::resolve, call.getString("batchId", UUID.randomUUID().toString()), files.size(), emitter);
+        List<Runnable> tasks = new ArrayList<>();
+
+        for (int i = 0; i < files.size(); i++) {
+            JSObject options = entries.get(i);
+            String id = options.getString("id", UUID.randomUUID().toString());
+            options.put("id", id);
+
+            UploadTaskCallback callback = batch.callbackFor(i, id);
+            File file = files.get(i);
+            if (file == null) {
+                callback.onError("Could not find file " + options.getString("filePath"), "FILE_NOT_FOUND", null);
+                continue;
+            }
+
+            try {
+                tasks.add(createUploadTask(options, file, context, callback));
+            } catch (JSONException e) {
+                callback.onError(e.getMessage(), "UPLOAD", e);
+            }
+        }
+
+        UploadQueue.getInstance().addUploads(tasks);
+    }
+
     @FunctionalInterface
     public interface ProgressEmitter {
         void emit(Integer bytes, Integer contentLength);
     }
+
+    @FunctionalInterface
+    public interface ResultEmitter {
+        void emit(JSObject result);
+    }
 }
@@ -6,17 +6,16 @@ import static com.getcapacitor.plugin.http.MimeType.APPLICATION_VND_API_JSON;
 import android.text.TextUtils;
 import android.util.Base64;
 
-import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 
 import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -31,19 +30,44 @@ public class HttpResponseBuilder {
      */
     public static JSObject buildResponse(CapacitorHttpUrlConnection connection, ResponseType responseType)
             throws IOException, JSONException {
+        return buildResponse(connection, responseType, false, null, RequestTimings.DISABLED);
+    }
+
+    /**
+     * Builds an HTTP Response given CapacitorHttpUrlConnection and ResponseType objects,
+     * recording when the response is received, read and parsed
+     * @param connection The CapacitorHttpUrlConnection to respond with
+     * @param responseType The requested ResponseType
+     * @param rawJson Whether JSON bodies are returned as their text, for JavaScript to parse
+     * @param select The values kept from JSON bodies, or null to keep everything
+     * @param timings The timings of the request, added to the response when enabled
+     * @return A JSObject that contains the HTTPResponse to return to the browser
+     * @throws IOException Thrown if the InputStream is unable to be parsed correctly
+     * @throws JSONException Thrown if the JSON is unable to be parsed
+     */
+    public static JSObject buildResponse(
+            CapacitorHttpUrlConnection connection,
+            ResponseType responseType,
+            boolean rawJson,
+            JsonProjection select,
+            RequestTimings timings
+    ) throws IOException, JSONException {
         int statusCode = connection.getResponseCode();
+        timings.markFirstByte();
 
         JSObject output = new JSObject();
         output.put("status", statusCode);
         output.put("headers", buildResponseHeaders(connection));
         output.put("url", connection.getURL());
-        output.put("data", readData(connection, responseType));
+        output.put("data", readData(connection, responseType, rawJson, select, timings));
+        timings.markParsed();
 
         InputStream errorStream = connection.getErrorStream();
         if (errorStream != null) {
             output.put("error", true);
         }
 
+        timings.addTo(output);
         return output;
     }
 
@@ -72,26 +96,57 @@ public class HttpResponseBuilder {
      * @throws JSONException Thrown if the JSON is malformed when parsing as JSON
      */
     static Object readData(ICapacitorHttpUrlConnection connection, ResponseType responseType) throws IOException, JSONException {
+        return readData(connection, responseType, false, null, RequestTimings.DISABLED);
+    }
+
+    /**
+     * Read the existing ICapacitorHttpUrlConnection data, recording when the body is read in full.
+     * With rawJson, JSON bodies are passed through as text, skipping a native parse that the
+     * bridge would only serialize again. With select, only the selected values of JSON bodies
+     * are built and sent over the bridge.
+     * @param connection The ICapacitorHttpUrlConnection object to read in
+     * @param responseType The type of HTTP response to return to the API
+     * @param rawJson Whether JSON bodies are returned as their text, for JavaScript to parse
+     * @param select The values kept from JSON bodies, or null to keep everything. Takes
+     *               precedence over rawJson
+     * @param timings The timings of the request
+     * @return The parsed data from the connection
+     * @throws IOException Thrown if the InputStreams cannot be properly parsed
+     * @throws JSONException Thrown if the JSON is malformed when parsing as JSON
+     */
+    static Object readData(
+            ICapacitorHttpUrlConnection connection,
+            ResponseType responseType,
+            boolean rawJson,
+            JsonProjection select,
+            RequestTimings timings
+    ) throws IOException, JSONException {
+        HttpMetrics metrics = HttpMetrics.getInstance();
         InputStream errorStream = connection.getErrorStream();
         String contentType = connection.getHeaderField("Content-Type");
 
+        // JSON is parsed as it is read, so reading the body includes parsing it
+        Object body;
         if (errorStream != null) {
+            InputStream stream = metrics.countIn(errorStream);
             if (isOneOf(contentType, APPLICATION_JSON, APPLICATION_VND_API_JSON)) {
-                return parseJSON(readStreamAsString(errorStream));
+                body = readJSON(stream, rawJson, select);
             } else {
-                return readStreamAsString(errorStream);
+                body = readStreamAsString(stream);
             }
         } else if (contentType != null && contentType.contains(APPLICATION_JSON.getValue())) {
             // backward compatibility
-            return parseJSON(readStreamAsString(connection.getInputStream()));
+            body = readJSON(metrics.countIn(connection.getInputStream()), rawJson, select);
         } else {
-            InputStream stream = connection.getInputStream();
-            return switch (responseType) {
+            InputStream stream = metrics.countIn(connection.getInputStream());
+            body = switch (responseType) {
                 case ARRAY_BUFFER, BLOB -> readStreamAsBase64(stream);
-                case JSON -> parseJSON(readStreamAsString(stream));
+                case JSON -> readJSON(stream, rawJson, select);
                 default -> readStreamAsString(stream);
             };
         }
+        timings.markBodyRead();
+        return body;
     }
 
     /**
@@ -112,29 +167,21 @@ public class HttpResponseBuilder {
     }
 
     /**
-     * Returns a JSObject or a JSArray based on a string-ified input
-     * @param input String-ified JSON that needs parsing
-     * @return A JSObject or JSArray
-     * @throws JSONException thrown if the JSON is malformed
+     * Returns a JSON body parsed, or as its exact text when it is passed through to JavaScript
+     * @param in The InputStream of UTF-8 JSON
+     * @param raw Whether to return the text instead of parsing it
+     * @param select The values to keep, or null to keep everything
+     * @return A JSObject, JSArray or flag from the parser, or the JSON text
+     * @throws IOException thrown if the InputStream is unable to be read
+     * @throws JSONException thrown if the JSON is malformed when parsing it
      */
-    private static Object parseJSON(String input) throws JSONException {
-        try {
-            if ("null".equals(input.trim())) {
-                return JSONObject.NULL;
-            } else if ("true".equals(input.trim())) {
-                return new JSONObject().put("flag", "true");
-            } else if ("false".equals(input.trim())) {
-                return new JSONObject().put("flag", "false");
-            } else {
-                try {
-                    return new JSObject(input);
-                } catch (JSONException e) {
-                    return new JSArray(input);
-                }
+    private static Object readJSON(InputStream in, boolean raw, JsonProjection select) throws IOException, JSONException {
+        if (raw && select == null) {
+            try (InputStream stream = in) {
+                return new String(readStreamAsBytes(stream), StandardCharsets.UTF_8);
             }
-        } catch (JSONException e) {
-            return new JSArray(input);
         }
+        return JsonParser.parse(in, select);
     }
 
     /**
@@ -144,14 +191,24 @@ public class HttpResponseBuilder {
      * @throws IOException thrown if the InputStream is unable to be read as base64
      */
     private static String readStreamAsBase64(InputStream in) throws IOException {
+        byte[] result = readStreamAsBytes(in);
+        return Base64.encodeToString(result, 0, result.length, Base64.DEFAULT);
+    }
+
+    /**
+     * Returns the remaining bytes of an InputStream
+     * @param in The InputStream to read
+     * @return The bytes read
+     * @throws IOException thrown if the InputStream is unable to be read
+     */
+    private static byte[] readStreamAsBytes(InputStream in) throws IOException {
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             byte[] buffer = new byte[1024];
             int readBytes;
             while ((readBytes = in.read(buffer)) != -1) {
                 out.write(buffer, 0, readBytes);
             }
-            byte[] result = out.toByteArray();
-            return Base64.encodeToString(result, 0, result.length, Base64.DEFAULT);
+            return out.toByteArray();
         }
     }
 
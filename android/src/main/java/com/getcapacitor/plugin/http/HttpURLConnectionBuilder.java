@@ -10,6 +10,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Iterator;
+import javax.net.ssl.HttpsURLConnection;
 
 /**
  * Internal builder class for building a CapacitorHttpUrlConnection
@@ -55,7 +56,23 @@ public class HttpURLConnectionBuilder {
     }
 
     public HttpURLConnectionBuilder openConnection() throws IOException {
-        connection = new CapacitorHttpUrlConnection((HttpURLConnection) url.openConnection());
+        // A URL that moved permanently is requested where it moved, skipping the redirect
+        URL redirectedFrom = null;
+        if (!Boolean.TRUE.equals(disableRedirects) && method != null) {
+            URL location = RedirectCache.getInstance().get(url, method);
+            if (location != null) {
+                redirectedFrom = url;
+                url = location;
+            }
+        }
+
+        HttpURLConnection httpConnection = (HttpURLConnection) url.openConnection();
+        if (httpConnection instanceof HttpsURLConnection) {
+            // Wraps the app's default factory, to count the handshakes of the sessions it resumes
+            ((HttpsURLConnection) httpConnection).setSSLSocketFactory(TlsSessionCache.getInstance().getSocketFactory());
+        }
+        connection = new CapacitorHttpUrlConnection(httpConnection);
+        connection.setRedirectedFrom(redirectedFrom);
 
         connection.setAllowUserInteraction(false);
         connection.setRequestMethod(method);
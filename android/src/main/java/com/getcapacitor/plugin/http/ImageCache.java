@@ -0,0 +1,254 @@
+package com.getcapacitor.plugin.http;
+
+import android.content.Context;
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disk cache of resized images, keyed by the identity of the source file and the resize
+ * options. Entries are evicted least-recently-used first once the cache exceeds its size
+ * budget. Entries handed out to an upload are pinned and never evicted until released.
+ */
+public class ImageCache {
+
+    static final long DEFAULT_MAX_SIZE = 50 * 1024 * 1024; // 50 MB
+    private static final String DIRECTORY = "http-image-cache";
+    private static final String PARTIAL_SUFFIX = ".tmp";
+
+    private static ImageCache instance;
+
+    private final File directory;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long size = 0;
+    private boolean loaded = false;
+
+    private static class Entry {
+
+        final File file;
+        final long size;
+        int pins = 0;
+
+        Entry(File file) {
+            this.file = file;
+            this.size = file.length();
+        }
+    }
+
+    ImageCache(File directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized ImageCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageCache(new File(context.getCacheDir(), DIRECTORY));
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the size budget of the cache in bytes, evicting entries if it is already over it
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        if (loaded) {
+            trimToSize();
+        }
+    }
+
+    /**
+     * Builds the cache key for an image produced from {@code source} with the given resize options
+     */
+    public static String getKey(File source, JSObject options) {
+        String identity =
+            source.getAbsolutePath() +
+            "|" +
+            source.length() +
+            "|" +
+            source.lastModified() +
+            "|" +
+            options.optInt("maxWidth", Integer.MAX_VALUE) +
+            "|" +
+            options.optInt("maxHeight", Integer.MAX_VALUE) +
+            "|" +
+            options.optInt("quality", 80) +
+            "|" +
+            ImageFormat.parse(options.optString("format", "jpg")) +
+            "|" +
+            options.optBoolean("stripMetadata", false);
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(identity.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(identity.hashCode());
+        }
+    }
+
+    /**
+     * Returns the cached file for the key, pinned until {@link #release(File)} or
+     * {@link #remove(File)} is called, or null if there is none
+     */
+    public synchronized File get(String key) {
+        ensureLoaded();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        } else if (!entry.file.exists()) {
+            entries.remove(key);
+            size -= entry.size;
+            return null;
+        }
+        entry.pins++;
+        entry.file.setLastModified(System.currentTimeMillis());
+        return entry.file;
+    }
+
+    /**
+     * Returns a file to write a new entry to. It only becomes part of the cache once passed to
+     * {@link #put(String, File)}.
+     */
+    public synchronized File createFile(String key, String extension) throws IOException {
+        ensureLoaded();
+        // Unique per call, so concurrent uploads of the same image never write to the same file
+        return File.createTempFile(key + "." + extension + ".", PARTIAL_SUFFIX, directory);
+    }
+
+    /**
+     * Adds a file written to a path from {@link #createFile(String, String)} to the cache
+     * @return the pinned cached file, which is an existing entry if another upload added the
+     *         same key first
+     */
+    public synchronized File put(String key, File partial) {
+        ensureLoaded();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.file.exists()) {
+            partial.delete();
+            existing.pins++;
+            return existing.file;
+        }
+
+        // key.ext.random.tmp -> key.ext
+        String name = partial.getName();
+        File file = new File(directory, name.substring(0, name.indexOf('.', name.indexOf('.') + 1)));
+        if (!partial.renameTo(file)) {
+            // Serve the partial path rather than fail the upload, it is cleaned up on next load
+            return partial;
+        }
+
+        Entry entry = new Entry(file);
+        entry.pins++;
+        entries.put(key, entry);
+        size += entry.size;
+        trimToSize();
+        return file;
+    }
+
+    /**
+     * Unpins a file obtained from the cache, keeping it for later reuse
+     */
+    public synchronized void release(File file) {
+        Entry entry = findEntry(file);
+        if (entry != null && entry.pins > 0) {
+            entry.pins--;
+            trimToSize();
+        }
+    }
+
+    /**
+     * Unpins a file obtained from the cache and deletes it once no other upload is using it.
+     * Files that are not part of the cache are left untouched.
+     */
+    public synchronized void remove(File file) {
+        Entry entry = findEntry(file);
+        if (entry == null) {
+            if (isPartial(file)) {
+                file.delete();
+            }
+            return;
+        }
+        if (entry.pins > 1) {
+            entry.pins--;
+            return;
+        }
+        entries.remove(keyOf(file));
+        size -= entry.size;
+        entry.file.delete();
+    }
+
+    private Entry findEntry(File file) {
+        if (file == null || !directory.equals(file.getParentFile())) {
+            return null;
+        }
+        Entry entry = entries.get(keyOf(file));
+        return entry != null && entry.file.equals(file) ? entry : null;
+    }
+
+    private boolean isPartial(File file) {
+        return directory.equals(file.getParentFile()) && file.getName().endsWith(PARTIAL_SUFFIX);
+    }
+
+    private static String keyOf(File file) {
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        return dot == -1 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * Indexes the files left in the cache directory by previous sessions, oldest first so the
+     * access order matches their last use
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.w("ImageCache", "Unable to create image cache directory " + directory);
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(PARTIAL_SUFFIX)) {
+                file.delete();
+                continue;
+            }
+            Entry entry = new Entry(file);
+            entries.put(keyOf(file), entry);
+            size += entry.size;
+        }
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.pins > 0) {
+                continue;
+            }
+            iterator.remove();
+            size -= entry.size;
+            entry.file.delete();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.getcapacitor.plugin.http;
+
+/**
+ * An enum specifying the output formats supported when re-encoding an image before upload
+ */
+public enum ImageFormat {
+    JPEG("jpg", "jpg"),
+    PNG("png", "png"),
+    WEBP("webp", "webp"),
+    WEBP_LOSSLESS("webp-lossless", "webp"),
+    HEIF("heic", "heic");
+
+    private final String name;
+    private final String extension;
+
+    ImageFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    static final ImageFormat DEFAULT = JPEG;
+
+    /**
+     * Returns the file extension used for temp files written in this format
+     */
+    String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the format named by a "format" option
+     * @throws IllegalArgumentException thrown when the format is not supported
+     */
+    static ImageFormat parse(String value) {
+        if ("jpeg".equalsIgnoreCase(value)) {
+            return JPEG;
+        } else if ("heif".equalsIgnoreCase(value)) {
+            return HEIF;
+        }
+        for (ImageFormat format : values()) {
+            if (format.name.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported image format: " + value);
+    }
+}
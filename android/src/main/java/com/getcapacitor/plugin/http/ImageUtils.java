@@ -3,15 +3,32 @@ package com.getcapacitor.plugin.http;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.os.Build;
 import android.text.format.Formatter;
 import android.util.Log;
+import androidx.heifwriter.HeifWriter;
 import com.getcapacitor.JSObject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class ImageUtils {
 
+    private static final int HEIF_ENCODE_TIMEOUT = 30 * 1000; // 30 seconds
+
     public static class ImageResult {
 
         public final File file;
@@ -29,25 +46,86 @@ public class ImageUtils {
 
     public static ImageResult resizeImage(Context context, File file, JSObject options, String id) {
         try {
-            int maxWidth = options.optInt("maxWidth", Integer.MAX_VALUE);
-            int maxHeight = options.optInt("maxHeight", Integer.MAX_VALUE);
-            int quality = options.optInt("quality", 80);
-            String format = options.optString("format", "jpg");
-
-            // First pass: decode only the dimensions (no memory allocation for pixels)
-            BitmapFactory.Options bmOptions = new BitmapFactory.Options();
-            bmOptions.inJustDecodeBounds = true;
-            BitmapFactory.decodeFile(file.getAbsolutePath(), bmOptions);
-
-            // Check if image is already smaller than max dimensions
-            if (bmOptions.outWidth <= maxWidth && bmOptions.outHeight <= maxHeight) {
-                // Image is already small enough, no need to resize
-                Log.d("ImageUtils", "📦 Image " + id + " is already smaller than max dimensions, skipping resize");
-                return getImageResult(file);
+            return resizeImageVariants(context, file, Collections.singletonList(options), id).get(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            // Get original dimensions even if resize fails
+            return getImageResult(file);
+        }
+    }
+
+    /**
+     * Produces one image per set of resize options from a single decode of the source file.
+     * Variants are rendered from the largest to the smallest, each one scaled down from the
+     * bitmap of the previous one, and returned in the order they were requested. Outputs are
+     * stored in the {@link ImageCache} and pinned; variants already in the cache are not
+     * rendered again.
+     * @param variants resize options (maxWidth, maxHeight, quality, format, stripMetadata) per output
+     * @throws IOException thrown if the image cannot be decoded or written
+     */
+    public static List<ImageResult> resizeImageVariants(Context context, File file, List<JSObject> variants, String id)
+        throws IOException {
+        // Re-encoded images carry no EXIF, so the orientation has to be applied to the pixels
+        int orientation = readOrientation(file);
+        boolean transposed = isTransposed(orientation);
+
+        // First pass: decode only the dimensions (no memory allocation for pixels)
+        BitmapFactory.Options bmOptions = new BitmapFactory.Options();
+        bmOptions.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), bmOptions);
+
+        int displayWidth = transposed ? bmOptions.outHeight : bmOptions.outWidth;
+        int displayHeight = transposed ? bmOptions.outWidth : bmOptions.outHeight;
+
+        ImageCache cache = ImageCache.getInstance(context);
+        ImageResult[] results = new ImageResult[variants.size()];
+        String[] keys = new String[variants.size()];
+        float[] scales = new float[variants.size()];
+        List<Integer> pending = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < variants.size(); i++) {
+                JSObject options = variants.get(i);
+                int maxWidth = options.optInt("maxWidth", Integer.MAX_VALUE);
+                int maxHeight = options.optInt("maxHeight", Integer.MAX_VALUE);
+                boolean stripMetadata = options.optBoolean("stripMetadata", false);
+                boolean fits = displayWidth <= maxWidth && displayHeight <= maxHeight;
+
+                if (fits && !stripMetadata) {
+                    // Image is already small enough, no need to resize
+                    Log.d("ImageUtils", "📦 Image " + id + " is already smaller than max dimensions, skipping resize");
+                    results[i] = getImageResult(file);
+                    continue;
+                }
+
+                // Reuse the output of an earlier attempt with the same source and options
+                keys[i] = ImageCache.getKey(file, options);
+                File cached = cache.get(keys[i]);
+                if (cached != null) {
+                    Log.d("ImageUtils", "📦 Reusing cached image " + id + ", " + Formatter.formatShortFileSize(context, cached.length()));
+                    results[i] = getImageResult(cached);
+                } else if (fits) {
+                    Log.d("ImageUtils", "📦 Image " + id + " is already smaller than max dimensions, skipping resize");
+                    results[i] = stripMetadata(context, file, orientation, cache, keys[i], id);
+                } else {
+                    scales[i] = Math.min(maxWidth / (float) displayWidth, maxHeight / (float) displayHeight);
+                    pending.add(i);
+                }
             }
 
-            // Calculate optimal sample size
-            bmOptions.inSampleSize = calculateInSampleSize(bmOptions, maxWidth, maxHeight);
+            if (pending.isEmpty()) {
+                return Arrays.asList(results);
+            }
+
+            // Largest first, so every smaller variant can be scaled down from the previous bitmap
+            Collections.sort(pending, (a, b) -> Float.compare(scales[b], scales[a]));
+
+            // Calculate optimal sample size for the largest variant against the stored (pre-rotation) dimensions
+            int largestWidth = Math.max(1, Math.round(displayWidth * scales[pending.get(0)]));
+            int largestHeight = Math.max(1, Math.round(displayHeight * scales[pending.get(0)]));
+            bmOptions.inSampleSize = transposed
+                ? calculateInSampleSize(bmOptions, largestHeight, largestWidth)
+                : calculateInSampleSize(bmOptions, largestWidth, largestHeight);
 
             // Second pass: decode with sample size (reduced memory usage)
             bmOptions.inJustDecodeBounds = false;
@@ -57,49 +135,347 @@ public class ImageUtils {
                 throw new IOException("Failed to decode image file: " + file.getAbsolutePath());
             }
 
-            // Calculate if further scaling is needed
-            float scale = Math.min(maxWidth / (float) bitmap.getWidth(), maxHeight / (float) bitmap.getHeight());
-            scale = Math.min(scale, 1); // Don't upscale
-
-            // Set default dimensions
-            int scaledWidth = bitmap.getWidth();
-            int scaledHeight = bitmap.getHeight();
-            Bitmap resized;
-
-            // Create a new bitmap if scaling is necessary
-            if (scale < 1) {
-                scaledWidth = Math.round(bitmap.getWidth() * scale);
-                scaledHeight = Math.round(bitmap.getHeight() * scale);
-                resized = Bitmap.createScaledBitmap(bitmap, scaledWidth, scaledHeight, true);
-                // Recycle the original immediately after creating the scaled version
+            try {
+                boolean oriented = false;
+                for (int i : pending) {
+                    JSObject options = variants.get(i);
+                    int targetWidth = Math.max(1, Math.round(displayWidth * scales[i]));
+                    int targetHeight = Math.max(1, Math.round(displayHeight * scales[i]));
+
+                    Bitmap resized = scaleBitmap(bitmap, oriented ? ExifInterface.ORIENTATION_NORMAL : orientation, targetWidth, targetHeight);
+                    if (resized != bitmap) {
+                        // Recycle the previous bitmap immediately after creating the smaller version
+                        bitmap.recycle();
+                        bitmap = resized;
+                    }
+                    oriented = true;
+
+                    File outputFile = encodeBitmap(
+                        bitmap,
+                        ImageFormat.parse(options.optString("format", "jpg")),
+                        options.optInt("quality", 80),
+                        cache,
+                        keys[i]
+                    );
+
+                    Log.d("ImageUtils", "📦 Resized image " + id + " to " + Formatter.formatShortFileSize(context, outputFile.length()));
+
+                    results[i] = new ImageResult(outputFile, bitmap.getWidth(), bitmap.getHeight(), outputFile.length());
+                }
+            } finally {
+                // Recycle bitmap after saving
                 bitmap.recycle();
-            } else {
-                // No scaling needed, use the original
-                resized = bitmap;
             }
+        } catch (IOException | RuntimeException e) {
+            // Unpin whatever was already produced, the caller never sees these results
+            for (ImageResult result : results) {
+                if (result != null) {
+                    cache.release(result.file);
+                }
+            }
+            throw e;
+        }
 
-            // Create temp file
-            File tempFile = File.createTempFile("resized", "." + format, context.getCacheDir());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies the orientation and scales the bitmap down to fit the target dimensions in a
+     * single pass, so only one extra bitmap is allocated. Returns the source bitmap itself
+     * when no transformation is needed.
+     */
+    private static Bitmap scaleBitmap(Bitmap bitmap, int orientation, int targetWidth, int targetHeight) {
+        boolean transposed = isTransposed(orientation);
+        int width = transposed ? bitmap.getHeight() : bitmap.getWidth();
+        int height = transposed ? bitmap.getWidth() : bitmap.getHeight();
+
+        float scale = Math.min(targetWidth / (float) width, targetHeight / (float) height);
+        scale = Math.min(scale, 1); // Don't upscale
+
+        Matrix matrix = getOrientationMatrix(orientation);
+        if (scale < 1) {
+            matrix.postScale(scale, scale);
+        }
+
+        if (matrix.isIdentity()) {
+            return bitmap;
+        }
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
 
-            // Use try-with-resources to ensure proper resource cleanup
-            try (FileOutputStream out = new FileOutputStream(tempFile)) {
-                Bitmap.CompressFormat compressFormat = format.equals("png") ?
-                        Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
-                resized.compress(compressFormat, quality, out);
-                out.flush();
+    /**
+     * Writes the bitmap to a new cache entry using the requested format. HEIF output requires
+     * a hardware HEVC encoder (API 28+); when it is unavailable the bitmap is written as JPEG instead.
+     * Lossless WebP requires API 29; below it the bitmap is written as PNG, which is lossless too.
+     * @return the pinned cached file
+     */
+    private static File encodeBitmap(Bitmap bitmap, ImageFormat format, int quality, ImageCache cache, String key)
+        throws IOException {
+        if (format == ImageFormat.HEIF) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                File partial = cache.createFile(key, format.getExtension());
+                try (
+                    HeifWriter writer = new HeifWriter.Builder(
+                        partial.getAbsolutePath(),
+                        bitmap.getWidth(),
+                        bitmap.getHeight(),
+                        HeifWriter.INPUT_MODE_BITMAP
+                    )
+                        .setQuality(quality)
+                        .setMaxImages(1)
+                        .build()
+                ) {
+                    writer.start();
+                    writer.addBitmap(bitmap);
+                    writer.stop(HEIF_ENCODE_TIMEOUT);
+                } catch (Exception e) {
+                    Log.w("ImageUtils", "HEIF encoding unavailable, falling back to JPEG: " + e.getMessage());
+                    partial.delete();
+                    partial = null;
+                }
+                if (partial != null) {
+                    return cache.put(key, partial);
+                }
             }
+            format = ImageFormat.JPEG;
+        } else if (format == ImageFormat.WEBP_LOSSLESS && Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            format = ImageFormat.PNG;
+        }
 
-            // Recycle bitmap after saving
-            resized.recycle();
+        File partial = cache.createFile(key, format.getExtension());
 
-            Log.d("ImageUtils", "📦 Resized image " + id + " to " + Formatter.formatShortFileSize(context, tempFile.length()));
+        // Use try-with-resources to ensure proper resource cleanup
+        try (FileOutputStream out = new FileOutputStream(partial)) {
+            bitmap.compress(getCompressFormat(format), format == ImageFormat.WEBP_LOSSLESS ? 100 : quality, out);
+            out.flush();
+        }
 
-            return new ImageResult(tempFile, scaledWidth, scaledHeight, tempFile.length());
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Get original dimensions even if resize fails
+        return cache.put(key, partial);
+    }
+
+    /**
+     * Maps an ImageFormat onto the Bitmap.CompressFormat that produces it. Before API 30 there is
+     * a single WEBP format, which switches to lossless encoding at quality 100 from API 29 only.
+     */
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat getCompressFormat(ImageFormat format) {
+        switch (format) {
+            case PNG:
+                return Bitmap.CompressFormat.PNG;
+            case WEBP:
+                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+            case WEBP_LOSSLESS:
+                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSLESS
+                    : Bitmap.CompressFormat.WEBP;
+            default:
+                return Bitmap.CompressFormat.JPEG;
+        }
+    }
+
+    /**
+     * Copies a JPEG to the image cache without its metadata segments (EXIF, XMP, comments,
+     * maker notes, embedded thumbnails). The JFIF header, ICC profile and Adobe color transform
+     * segments are kept, and the orientation is re-written as a minimal EXIF block so the
+     * image still displays upright. Non-JPEG files are returned untouched.
+     */
+    private static ImageResult stripMetadata(Context context, File file, int orientation, ImageCache cache, String key, String id)
+        throws IOException {
+        File partial = cache.createFile(key, "jpg");
+
+        boolean stripped;
+        try (
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(partial))
+        ) {
+            stripped = copyJpegWithoutMetadata(in, out, orientation);
+        } catch (IOException e) {
+            partial.delete();
+            throw e;
+        }
+
+        if (!stripped) {
+            partial.delete();
             return getImageResult(file);
         }
+
+        File strippedFile = cache.put(key, partial);
+
+        Log.d(
+            "ImageUtils",
+            "📦 Stripped metadata from image " +
+            id +
+            ", " +
+            Formatter.formatShortFileSize(context, file.length()) +
+            " -> " +
+            Formatter.formatShortFileSize(context, strippedFile.length())
+        );
+
+        ImageResult original = getImageResult(file);
+        return new ImageResult(strippedFile, original.width, original.height, strippedFile.length());
+    }
+
+    /**
+     * Copies JPEG segments from {@code in} to {@code out}, dropping every APPn and COM segment
+     * that is not needed to render the image.
+     * @return false if the input is not a JPEG, in which case nothing useful was written
+     */
+    static boolean copyJpegWithoutMetadata(DataInputStream in, OutputStream out, int orientation) throws IOException {
+        if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != 0xD8) {
+            return false;
+        }
+        out.write(0xFF);
+        out.write(0xD8);
+
+        boolean orientationWritten = orientation == ExifInterface.ORIENTATION_NORMAL ||
+            orientation == ExifInterface.ORIENTATION_UNDEFINED;
+
+        while (true) {
+            int marker;
+            try {
+                if (in.readUnsignedByte() != 0xFF) {
+                    throw new IOException("Invalid JPEG marker");
+                }
+                marker = in.readUnsignedByte();
+                // Skip fill bytes
+                while (marker == 0xFF) {
+                    marker = in.readUnsignedByte();
+                }
+            } catch (EOFException e) {
+                return true;
+            }
+
+            if (marker == 0xD9) {
+                out.write(0xFF);
+                out.write(marker);
+                return true;
+            }
+
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                throw new IOException("Invalid JPEG segment length");
+            }
+            byte[] segment = new byte[length - 2];
+            in.readFully(segment);
+
+            boolean isApp0 = marker == 0xE0;
+            if (!orientationWritten && !isApp0) {
+                writeOrientationSegment(out, orientation);
+                orientationWritten = true;
+            }
+
+            if (isEssentialSegment(marker, segment)) {
+                out.write(0xFF);
+                out.write(marker);
+                out.write(length >> 8);
+                out.write(length & 0xFF);
+                out.write(segment);
+            }
+
+            if (marker == 0xDA) {
+                // Start of scan: the rest of the file is entropy-coded image data
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return true;
+            }
+        }
+    }
+
+    private static boolean isEssentialSegment(int marker, byte[] segment) {
+        if (marker == 0xFE) {
+            // COM
+            return false;
+        } else if (marker >= 0xE0 && marker <= 0xEF) {
+            // APP0 (JFIF), APP2 (ICC_PROFILE) and APP14 (Adobe) affect how pixels are decoded
+            return (
+                marker == 0xE0 ||
+                marker == 0xEE ||
+                (marker == 0xE2 && startsWith(segment, "ICC_PROFILE".getBytes(StandardCharsets.US_ASCII)))
+            );
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes an APP1 segment containing a single-entry EXIF IFD with the orientation tag
+     */
+    private static void writeOrientationSegment(OutputStream out, int orientation) throws IOException {
+        byte[] segment = new byte[] {
+            (byte) 0xFF, (byte) 0xE1,
+            0x00, 0x22, // segment length (34)
+            'E', 'x', 'i', 'f', 0x00, 0x00,
+            'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08, // big-endian TIFF header, IFD0 at offset 8
+            0x00, 0x01, // one entry
+            0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, (byte) orientation, 0x00, 0x00, // Orientation, SHORT, 1
+            0x00, 0x00, 0x00, 0x00 // no next IFD
+        };
+        out.write(segment);
+    }
+
+    private static int readOrientation(File file) {
+        try {
+            ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+            return exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static boolean isTransposed(int orientation) {
+        return (
+            orientation == ExifInterface.ORIENTATION_TRANSPOSE ||
+            orientation == ExifInterface.ORIENTATION_ROTATE_90 ||
+            orientation == ExifInterface.ORIENTATION_TRANSVERSE ||
+            orientation == ExifInterface.ORIENTATION_ROTATE_270
+        );
+    }
+
+    /**
+     * Returns the matrix that turns stored pixels into their displayed orientation
+     */
+    private static Matrix getOrientationMatrix(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+        }
+        return matrix;
     }
 
     /**
@@ -0,0 +1,129 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.json.JSONException;
+
+/**
+ * Runs a request through the registered {@link HttpInterceptor}s. The auth interceptor set up
+ * with {@code setAuth()} runs first, so the interceptors added by the app see its headers and
+ * run again when it retries a request.
+ */
+public final class InterceptorChain implements HttpInterceptor.Chain {
+
+    private static final List<HttpInterceptor> INTERCEPTORS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sends a request on a new connection, with the headers set by the interceptors on top of
+     * its own
+     */
+    @FunctionalInterface
+    interface Exchange {
+        JSObject send(JSObject headers) throws IOException, URISyntaxException, JSONException;
+    }
+
+    private final List<HttpInterceptor> interceptors;
+    private final int index;
+    private final URL url;
+    private final String method;
+    private final JSObject headers;
+    private final CancellationToken token;
+    private final Exchange exchange;
+
+    private InterceptorChain(
+        List<HttpInterceptor> interceptors,
+        int index,
+        URL url,
+        String method,
+        JSObject headers,
+        CancellationToken token,
+        Exchange exchange
+    ) {
+        this.interceptors = interceptors;
+        this.index = index;
+        this.url = url;
+        this.method = method;
+        this.headers = headers;
+        this.token = token;
+        this.exchange = exchange;
+    }
+
+    /**
+     * Adds an interceptor to every request made from now on, after those already added
+     */
+    public static void add(HttpInterceptor interceptor) {
+        INTERCEPTORS.add(interceptor);
+    }
+
+    public static void remove(HttpInterceptor interceptor) {
+        INTERCEPTORS.remove(interceptor);
+    }
+
+    /**
+     * Sends a request through every interceptor
+     * @param url The URL of the request
+     * @param method The HTTP method of the request
+     * @param token The token of the request, cancelled along with it or at its deadline
+     * @param exchange Sends the request once the interceptors let it through
+     * @return The response returned by the outermost interceptor
+     */
+    static JSObject execute(URL url, String method, CancellationToken token, Exchange exchange) throws IOException, URISyntaxException, JSONException {
+        List<HttpInterceptor> interceptors = new ArrayList<>(INTERCEPTORS.size() + 1);
+        AuthInterceptor auth = AuthInterceptor.getInstance();
+        if (auth.isEnabled()) {
+            interceptors.add(auth);
+        }
+        interceptors.addAll(INTERCEPTORS);
+
+        if (interceptors.isEmpty()) {
+            return exchange.send(new JSObject());
+        }
+        return new InterceptorChain(interceptors, 0, url, method, new JSObject(), token, exchange).proceed();
+    }
+
+    @Override
+    public URL url() {
+        return url;
+    }
+
+    @Override
+    public String method() {
+        return method;
+    }
+
+    @Override
+    public JSObject headers() {
+        return headers;
+    }
+
+    @Override
+    public CancellationToken token() {
+        return token;
+    }
+
+    @Override
+    public JSObject proceed() throws IOException, URISyntaxException, JSONException {
+        // Each interceptor gets its own copy, so a retry does not carry what later ones added
+        if (index < interceptors.size()) {
+            InterceptorChain next = new InterceptorChain(interceptors, index + 1, url, method, copy(headers), token, exchange);
+            return interceptors.get(index).intercept(next);
+        }
+        return exchange.send(copy(headers));
+    }
+
+    private static JSObject copy(JSObject headers) {
+        JSObject copy = new JSObject();
+        Iterator<String> keys = headers.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            copy.put(key, headers.opt(key));
+        }
+        return copy;
+    }
+}
@@ -3,7 +3,9 @@ package com.getcapacitor.plugin.http;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
+import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 /**
  * Represents a single user-data value of any type on the capacitor PluginCall object.
@@ -20,6 +22,14 @@ public class JSValue {
         this.value = this.toValue(call, name);
     }
 
+    /**
+     * @param data The options object of a request, e.g. an entry of a batch.
+     * @param name The name of the property to access.
+     */
+    public JSValue(JSObject data, String name) {
+        this.value = this.toValue(data, name);
+    }
+
     /**
      * Returns the coerced but uncasted underlying value.
      */
@@ -65,4 +75,18 @@ public class JSValue {
         if (value != null) return value;
         return call.getData().opt(name);
     }
+
+    /**
+     * Returns the underlying value of the property, coercing nested JSON into capacitor-friendly objects.
+     */
+    private Object toValue(JSObject data, String name) {
+        Object value = data.opt(name);
+        try {
+            if (value instanceof JSONArray) return new JSArray(value.toString());
+            if (value instanceof JSONObject) return JSObject.fromJSONObject((JSONObject) value);
+        } catch (JSONException e) {
+            return value;
+        }
+        return value;
+    }
 }
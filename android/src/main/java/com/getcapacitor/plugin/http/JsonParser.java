@@ -0,0 +1,197 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.MalformedJsonException;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Parses JSON response bodies in a single pass, streaming from the response into the structure
+ * its first token calls for instead of buffering the body and trying each structure in turn
+ */
+final class JsonParser {
+
+    private JsonParser() {}
+
+    /**
+     * Returns a JSObject or a JSArray read from a stream of JSON. A bare null is returned as
+     * JSONObject.NULL and a bare boolean as an object with a "flag" string.
+     * @param in The stream of UTF-8 JSON, closed once read
+     * @return A JSObject, a JSArray, JSONObject.NULL or a flag object
+     * @throws IOException thrown if the stream is unable to be read
+     * @throws JSONException thrown if the JSON is malformed or is not an object, an array, null or a boolean
+     */
+    static Object parse(InputStream in) throws IOException, JSONException {
+        return parse(in, null);
+    }
+
+    /**
+     * Returns a JSObject or a JSArray read from a stream of JSON, keeping only the values a
+     * projection selects. Other values are skipped without being built.
+     * @param in The stream of UTF-8 JSON, closed once read
+     * @param projection The values to keep, or null to keep everything
+     * @return A JSObject, a JSArray, JSONObject.NULL or a flag object
+     * @throws IOException thrown if the stream is unable to be read
+     * @throws JSONException thrown if the JSON is malformed or is not an object, an array, null or a boolean
+     */
+    static Object parse(InputStream in, JsonProjection projection) throws IOException, JSONException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            // Lenient like org.json, which also accepts the top-level null and booleans
+            reader.setLenient(true);
+            Object result;
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                    result = projection == null ? readObject(reader, new JSObject()) : readObject(reader, new JSObject(), projection);
+                    break;
+                case BEGIN_ARRAY:
+                    result = projection == null ? readArray(reader, new JSArray()) : readArray(reader, new JSArray(), projection);
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    result = JSONObject.NULL;
+                    break;
+                case BOOLEAN:
+                    result = new JSONObject().put("flag", String.valueOf(reader.nextBoolean()));
+                    break;
+                default:
+                    throw new JSONException("Expected a JSON object or array but was " + reader.peek());
+            }
+            // Leniency would otherwise read whatever follows as further documents
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JSONException("Unexpected " + reader.peek() + " after the JSON value");
+            }
+            return result;
+        } catch (MalformedJsonException | EOFException | IllegalStateException e) {
+            throw new JSONException(e.getMessage());
+        }
+    }
+
+    private static JSONObject readObject(JsonReader reader, JSONObject object) throws IOException, JSONException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            object.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return object;
+    }
+
+    private static JSONArray readArray(JsonReader reader, JSONArray array) throws IOException, JSONException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader, new JSONObject());
+            case BEGIN_ARRAY:
+                return readArray(reader, new JSONArray());
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static JSONObject readObject(JsonReader reader, JSONObject object, JsonProjection projection)
+        throws IOException, JSONException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            Object value = readSelected(reader, projection.field(name));
+            if (value != null) {
+                object.put(name, value);
+            }
+        }
+        reader.endObject();
+        return object;
+    }
+
+    /**
+     * Reads the elements a projection selects, keeping their index: an element of the wrong shape
+     * is a null, and so is a skipped element followed by a selected one
+     */
+    private static JSONArray readArray(JsonReader reader, JSONArray array, JsonProjection projection)
+        throws IOException, JSONException {
+        reader.beginArray();
+        int skipped = 0;
+        for (int index = 0; reader.hasNext(); index++) {
+            JsonProjection element = projection.element(index);
+            Object value = readSelected(reader, element);
+            if (value == null && element == null) {
+                skipped++;
+                continue;
+            }
+            for (; skipped > 0; skipped--) {
+                array.put(JSONObject.NULL);
+            }
+            array.put(value != null ? value : JSONObject.NULL);
+        }
+        reader.endArray();
+        return array;
+    }
+
+    /**
+     * Reads the next value as far as a projection selects it, or skips it and returns null
+     */
+    private static Object readSelected(JsonReader reader, JsonProjection projection) throws IOException, JSONException {
+        if (projection == null) {
+            reader.skipValue();
+            return null;
+        } else if (projection.isSelected()) {
+            return readValue(reader);
+        }
+
+        // Only some fields or elements are selected, which a primitive does not have
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader, new JSONObject(), projection);
+            case BEGIN_ARRAY:
+                return readArray(reader, new JSONArray(), projection);
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Converts a number literal to the type org.json would give it: an Integer or a Long when it
+     * is integral and fits, otherwise a Double
+     */
+    private static Object toNumber(String literal) {
+        if (literal.indexOf('.') == -1 && literal.indexOf('e') == -1 && literal.indexOf('E') == -1) {
+            try {
+                long value = Long.parseLong(literal);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                // Too large for a long, read as a double below
+            }
+        }
+        try {
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            return literal;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.getcapacitor.plugin.http;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * The fields selected from a JSON response, as a tree of paths. A path is a list of field names
+ * separated by dots, where "[*]" selects every element of an array, "[n]" one element and "*"
+ * every field of an object, e.g. "items[*].id" or "$.meta.total". Values outside every path are
+ * skipped while parsing, so they are never built in memory. Array elements keep their index: an
+ * element a path selects but that has another shape, e.g. a string where it expects an object,
+ * becomes null, as does a skipped element before a selected one.
+ */
+final class JsonProjection {
+
+    private final Map<String, JsonProjection> fields = new HashMap<>();
+    private final Map<Integer, JsonProjection> elements = new HashMap<>();
+    private JsonProjection anyField;
+    private JsonProjection anyElement;
+    private boolean selected;
+
+    private JsonProjection() {}
+
+    /**
+     * Builds the projection of the "select" option of a request
+     * @param select A path or an array of paths, or null to select everything
+     * @return The projection, or null to keep the whole body
+     * @throws JSONException thrown when a path is malformed
+     */
+    static JsonProjection fromOption(Object select) throws JSONException {
+        if (select == null) {
+            return null;
+        }
+
+        JsonProjection root = new JsonProjection();
+        if (select instanceof JSONArray) {
+            JSONArray paths = (JSONArray) select;
+            for (int i = 0; i < paths.length(); i++) {
+                root.add(paths.getString(i));
+            }
+        } else {
+            root.add(select.toString());
+        }
+        root.resolveWildcards();
+        return root;
+    }
+
+    /**
+     * Whether the whole value at this path is selected, rather than some of its fields
+     */
+    boolean isSelected() {
+        return selected;
+    }
+
+    /**
+     * Returns the projection of an object's field, or null when the field is skipped
+     */
+    JsonProjection field(String name) {
+        JsonProjection field = fields.get(name);
+        return field != null ? field : anyField;
+    }
+
+    /**
+     * Returns the projection of an array's element, or null when the element is skipped
+     */
+    JsonProjection element(int index) {
+        JsonProjection element = elements.get(index);
+        return element != null ? element : anyElement;
+    }
+
+    /**
+     * Merges the wildcards into the named fields and indexed elements they also match, so a
+     * lookup finds everything selected in a single node
+     */
+    private void resolveWildcards() {
+        if (anyField != null) {
+            for (JsonProjection field : fields.values()) {
+                field.merge(anyField);
+            }
+            anyField.resolveWildcards();
+        }
+        if (anyElement != null) {
+            for (JsonProjection element : elements.values()) {
+                element.merge(anyElement);
+            }
+            anyElement.resolveWildcards();
+        }
+        for (JsonProjection field : fields.values()) {
+            field.resolveWildcards();
+        }
+        for (JsonProjection element : elements.values()) {
+            element.resolveWildcards();
+        }
+    }
+
+    private void merge(JsonProjection other) {
+        selected |= other.selected;
+        for (Map.Entry<String, JsonProjection> field : other.fields.entrySet()) {
+            child(fields, field.getKey()).merge(field.getValue());
+        }
+        for (Map.Entry<Integer, JsonProjection> element : other.elements.entrySet()) {
+            child(elements, element.getKey()).merge(element.getValue());
+        }
+        if (other.anyField != null) {
+            if (anyField == null) {
+                anyField = new JsonProjection();
+            }
+            anyField.merge(other.anyField);
+        }
+        if (other.anyElement != null) {
+            if (anyElement == null) {
+                anyElement = new JsonProjection();
+            }
+            anyElement.merge(other.anyElement);
+        }
+    }
+
+    private void add(String path) throws JSONException {
+        String remaining = path.trim();
+        if (remaining.startsWith("$")) {
+            remaining = remaining.substring(1);
+        }
+
+        JsonProjection node = this;
+        int position = 0;
+        while (position < remaining.length()) {
+            char c = remaining.charAt(position);
+            if (c == '.') {
+                position++;
+                continue;
+            }
+
+            if (c == '[') {
+                int end = remaining.indexOf(']', position);
+                if (end == -1) {
+                    throw new JSONException("Unclosed [ in select path " + path);
+                }
+                String index = remaining.substring(position + 1, end).trim();
+                if (index.equals("*")) {
+                    node = node.anyElement != null ? node.anyElement : (node.anyElement = new JsonProjection());
+                } else {
+                    try {
+                        node = child(node.elements, Integer.parseInt(index));
+                    } catch (NumberFormatException e) {
+                        throw new JSONException("Invalid index [" + index + "] in select path " + path);
+                    }
+                }
+                position = end + 1;
+            } else {
+                int end = position;
+                while (end < remaining.length() && remaining.charAt(end) != '.' && remaining.charAt(end) != '[') {
+                    end++;
+                }
+                String name = remaining.substring(position, end);
+                if (name.equals("*")) {
+                    node = node.anyField != null ? node.anyField : (node.anyField = new JsonProjection());
+                } else {
+                    node = child(node.fields, name);
+                }
+                position = end;
+            }
+        }
+
+        if (node == this) {
+            throw new JSONException("Empty select path " + path);
+        }
+        node.selected = true;
+    }
+
+    /**
+     * Returns the projection of a field or an element, adding it if missing. Map.computeIfAbsent
+     * needs API 24.
+     */
+    private static <K> JsonProjection child(Map<K, JsonProjection> children, K key) {
+        JsonProjection child = children.get(key);
+        if (child == null) {
+            child = new JsonProjection();
+            children.put(key, child);
+        }
+        return child;
+    }
+}
@@ -0,0 +1,69 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations over fixed buckets. Percentiles are estimated as the upper
+ * bound of the bucket they fall in, so they are never under-reported.
+ */
+class LatencyHistogram {
+
+    /** Upper bounds of the buckets in milliseconds, the last bucket has no upper bound */
+    static final long[] BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long millis) {
+        int bucket = 0;
+        while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(millis);
+
+        long current;
+        while (millis > (current = max.get()) && !max.compareAndSet(current, millis)) {}
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the duration under which {@code percentile} of the recorded durations fall
+     * @param percentile between 0 and 1
+     */
+    long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max.get());
+            }
+        }
+        return max.get();
+    }
+
+    JSObject toJSObject() {
+        long total = count.get();
+        JSObject output = new JSObject();
+        output.put("count", total);
+        output.put("mean", total > 0 ? sum.get() / total : 0);
+        output.put("p50", getPercentile(0.5));
+        output.put("p90", getPercentile(0.9));
+        output.put("p99", getPercentile(0.99));
+        output.put("max", max.get());
+        return output;
+    }
+}
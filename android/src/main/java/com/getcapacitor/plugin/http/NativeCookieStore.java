@@ -0,0 +1,293 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.CookieStore;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A persistent {@code CookieStore} that does not depend on the WebView. Cookies are indexed by
+ * domain, so a lookup only visits the domains a host belongs to. The file is read on first use
+ * and rewritten by {@link #save()}, holding persistent cookies only; session cookies last as
+ * long as the process. A cookie set without a Domain attribute is host-only, so it is only sent
+ * back to the host that set it and never to its subdomains.
+ */
+public class NativeCookieStore implements CookieStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final Object saveLock = new Object();
+    private final Map<String, List<Entry>> byDomain = new HashMap<>();
+    private boolean loaded = false;
+    private boolean dirty = false;
+
+    public NativeCookieStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void add(URI uri, HttpCookie cookie) {
+        load();
+        boolean hostOnly = cookie.getDomain() == null;
+        String domain = hostOnly ? uri.getHost() : cookie.getDomain();
+        if (domain == null) {
+            return;
+        }
+        domain = normalize(domain);
+        // Stored without a leading dot, so equal cookies compare equal
+        cookie.setDomain(domain);
+        List<Entry> entries = byDomain.get(domain);
+        if (entries != null) {
+            removeEqual(entries, cookie);
+        }
+
+        // An expired cookie only removes the one it replaces
+        if (!cookie.hasExpired()) {
+            if (entries == null) {
+                entries = new ArrayList<>();
+                byDomain.put(domain, entries);
+            }
+            long expiresAt = cookie.getMaxAge() < 0 ? -1 : System.currentTimeMillis() + cookie.getMaxAge() * 1000;
+            entries.add(new Entry(cookie, expiresAt, hostOnly));
+        } else if (entries != null && entries.isEmpty()) {
+            byDomain.remove(domain);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Returns the unexpired cookies whose domain matches the host of the URI: its own, host-only
+     * or not, and those of its parent domains that were set for subdomains too
+     */
+    @Override
+    public synchronized List<HttpCookie> get(URI uri) {
+        load();
+        List<HttpCookie> cookies = new ArrayList<>();
+        String host = uri.getHost() != null ? normalize(uri.getHost()) : "";
+
+        // Visits the host, then each parent domain: a.example.com, example.com, com
+        for (String domain = host; !domain.isEmpty(); ) {
+            collect(byDomain.get(domain), cookies, domain.equals(host));
+            int dot = domain.indexOf('.');
+            domain = dot == -1 ? "" : domain.substring(dot + 1);
+        }
+        return cookies;
+    }
+
+    @Override
+    public synchronized List<HttpCookie> getCookies() {
+        load();
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (List<Entry> entries : byDomain.values()) {
+            collect(entries, cookies, true);
+        }
+        return cookies;
+    }
+
+    @Override
+    public synchronized List<URI> getURIs() {
+        load();
+        List<URI> uris = new ArrayList<>();
+        for (String domain : byDomain.keySet()) {
+            try {
+                uris.add(new URI("http", domain, "/", null));
+            } catch (URISyntaxException e) {
+                // Not a host name, so no URI reaches its cookies either
+            }
+        }
+        return uris;
+    }
+
+    @Override
+    public synchronized boolean remove(URI uri, HttpCookie cookie) {
+        load();
+        String domain = normalize(cookie.getDomain() != null ? cookie.getDomain() : uri.getHost());
+        List<Entry> entries = byDomain.get(domain);
+        if (entries == null || !removeEqual(entries, cookie)) {
+            return false;
+        }
+        if (entries.isEmpty()) {
+            byDomain.remove(domain);
+        }
+        dirty = true;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeAll() {
+        load();
+        boolean removed = !byDomain.isEmpty();
+        byDomain.clear();
+        dirty = true;
+        return removed;
+    }
+
+    /**
+     * Writes the persistent cookies to the file if they changed since it was last written. The
+     * store stays usable while the file is written.
+     */
+    public void save() {
+        synchronized (saveLock) {
+            List<Entry> persistent = new ArrayList<>();
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                for (List<Entry> entries : byDomain.values()) {
+                    for (Entry entry : entries) {
+                        if (entry.expiresAt > now) {
+                            persistent.add(entry);
+                        }
+                    }
+                }
+                dirty = false;
+            }
+
+            if (!write(persistent)) {
+                synchronized (this) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+
+    private boolean write(List<Entry> persistent) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(persistent.size());
+            for (Entry entry : persistent) {
+                HttpCookie cookie = entry.cookie;
+                out.writeUTF(cookie.getName());
+                out.writeUTF(cookie.getValue() != null ? cookie.getValue() : "");
+                out.writeUTF(cookie.getDomain());
+                out.writeUTF(cookie.getPath() != null ? cookie.getPath() : "/");
+                out.writeLong(entry.expiresAt);
+                out.writeBoolean(cookie.getSecure());
+                out.writeBoolean(cookie.isHttpOnly());
+                out.writeBoolean(entry.hostOnly);
+            }
+        } catch (IOException e) {
+            Log.w("NativeCookieStore", "Unable to save cookies: " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+
+        // Renaming replaces the file at once, so a crash never leaves half of it written
+        if (!temp.renameTo(file)) {
+            Log.w("NativeCookieStore", "Unable to replace " + file);
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                HttpCookie cookie = new HttpCookie(in.readUTF(), in.readUTF());
+                cookie.setVersion(0);
+                cookie.setDomain(in.readUTF());
+                cookie.setPath(in.readUTF());
+                long expiresAt = in.readLong();
+                cookie.setSecure(in.readBoolean());
+                cookie.setHttpOnly(in.readBoolean());
+                boolean hostOnly = in.readBoolean();
+                if (expiresAt > now) {
+                    cookie.setMaxAge((expiresAt - now) / 1000);
+                    String domain = normalize(cookie.getDomain());
+                    List<Entry> entries = byDomain.get(domain);
+                    if (entries == null) {
+                        entries = new ArrayList<>();
+                        byDomain.put(domain, entries);
+                    }
+                    entries.add(new Entry(cookie, expiresAt, hostOnly));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w("NativeCookieStore", "Unable to load cookies, starting empty: " + e.getMessage());
+            byDomain.clear();
+        }
+    }
+
+    /**
+     * Adds the unexpired cookies of a domain to a list, dropping the expired ones
+     * @param hostOnly Whether to add the host-only cookies, i.e. the domain is the requested host
+     */
+    private void collect(List<Entry> entries, List<HttpCookie> cookies, boolean hostOnly) {
+        if (entries == null) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.cookie.hasExpired()) {
+                iterator.remove();
+                dirty = true;
+            } else if (hostOnly || !entry.hostOnly) {
+                cookies.add(entry.cookie);
+            }
+        }
+    }
+
+    private static boolean removeEqual(List<Entry> entries, HttpCookie cookie) {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().cookie.equals(cookie)) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String domain) {
+        String lower = domain.toLowerCase(Locale.ROOT);
+        return lower.startsWith(".") ? lower.substring(1) : lower;
+    }
+
+    private static class Entry {
+
+        final HttpCookie cookie;
+        // Epoch milliseconds, or -1 for a session cookie
+        final long expiresAt;
+        // Set without a Domain attribute, so only sent to the host that set it
+        final boolean hostOnly;
+
+        Entry(HttpCookie cookie, long expiresAt, boolean hostOnly) {
+            this.cookie = cookie;
+            this.expiresAt = expiresAt;
+            this.hostOnly = hostOnly;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms up the origins an app is about to call: resolves their host names and opens a
+ * connection to each one, TLS handshake included, on the {@link RequestDispatcher}. The
+ * connection is released to the keep-alive pool of {@code HttpURLConnection} instead of being
+ * closed, so the first request to the origin reuses it.
+ */
+class Preconnector {
+
+    static final int DEFAULT_TIMEOUT = 10000;
+
+    @FunctionalInterface
+    interface Callback {
+        void done(JSObject result);
+    }
+
+    private final List<URL> origins;
+    private final int timeout;
+    private final Callback callback;
+    private final JSObject[] results;
+    private final AtomicInteger remaining;
+
+    Preconnector(List<URL> origins, int timeout, Callback callback) {
+        this.origins = origins;
+        this.timeout = timeout;
+        this.callback = callback;
+        this.results = new JSObject[origins.size()];
+        this.remaining = new AtomicInteger(origins.size());
+    }
+
+    /**
+     * Warms up every origin at once, calling back when they are all done
+     */
+    void start() {
+        if (origins.isEmpty()) {
+            callback.done(buildSummary());
+            return;
+        }
+        for (int i = 0; i < origins.size(); i++) {
+            final int index = i;
+            RequestDispatcher.getInstance().execute(() -> {
+                results[index] = preconnect(origins.get(index));
+                if (remaining.decrementAndGet() == 0) {
+                    callback.done(buildSummary());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the origin of a URL, which is what a warm connection can be reused for
+     * @throws IOException thrown when the URL is malformed or not http(s)
+     */
+    static URL originOf(String url) throws IOException {
+        URL parsed = new URL(url);
+        String protocol = parsed.getProtocol();
+        if (!protocol.equals("http") && !protocol.equals("https")) {
+            throw new IOException("Cannot preconnect to " + url);
+        }
+        return new URL(protocol, parsed.getHost(), parsed.getPort(), "/");
+    }
+
+    private JSObject preconnect(URL origin) {
+        JSObject result = new JSObject();
+        result.put("origin", origin.getProtocol() + "://" + origin.getAuthority());
+        long start = System.nanoTime();
+        try {
+            // Resolving first puts the addresses in the DNS caches, and times the lookup alone
+            InetAddress.getAllByName(origin.getHost());
+            long resolved = System.nanoTime();
+            result.put("dnsTime", millisBetween(start, resolved));
+
+            CapacitorHttpUrlConnection connection = new HttpURLConnectionBuilder()
+                .setUrl(origin)
+                .setMethod("HEAD")
+                .setConnectTimeout(timeout)
+                .setReadTimeout(timeout)
+                .setDisableRedirects(true)
+                .openConnection()
+                .build();
+            int status = connection.getResponseCode();
+
+            // Closing the drained response releases the connection to the pool, where
+            // disconnect() would close the socket
+            InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body != null) {
+                drain(body);
+            }
+            result.put("connectTime", millisBetween(resolved, System.nanoTime()));
+            result.put("success", true);
+        } catch (Exception e) {
+            Log.w("Preconnector", "Unable to preconnect to " + origin + ": " + e.getMessage());
+            result.put("success", false);
+            result.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return result;
+    }
+
+    private JSObject buildSummary() {
+        JSArray list = new JSArray();
+        for (JSObject result : results) {
+            list.put(result);
+        }
+        JSObject summary = new JSObject();
+        summary.put("origins", list);
+        return summary;
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            byte[] buffer = new byte[1024];
+            while (body.read(buffer) != -1) {
+                // HEAD responses have no body, but a server may send one anyway
+            }
+        }
+    }
+
+    private static double millisBetween(long start, long end) {
+        return (end - start) / 1_000_000.0;
+    }
+}
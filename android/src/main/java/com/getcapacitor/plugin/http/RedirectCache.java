@@ -0,0 +1,271 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Remembers the permanent redirects (301 and 308) responses were sent, so later requests to the
+ * moved URL go straight to where it moved instead of paying the redirect again. A 301 only
+ * applies to GET and HEAD requests, which is what it is followed with; a 308 applies to every
+ * method. The least recently used redirects are evicted beyond the cache size, and a redirect
+ * is forgotten when a request sent through it fails, so the next one asks the original URL.
+ * Only redirects within an origin are remembered: a request sent straight to where it moved
+ * carries every header it was built with, including credentials meant for the original host.
+ */
+class RedirectCache {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+    // Redirects followed in a row before giving up, as HttpURLConnection does
+    static final int MAX_HOPS = 20;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final RedirectCache INSTANCE = new RedirectCache();
+
+    // Keyed by URL string, as URL.equals resolves host names; in access order for eviction
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Object saveLock = new Object();
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private File file;
+    private boolean loaded = true;
+    private boolean dirty = false;
+
+    RedirectCache() {}
+
+    static RedirectCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param maxSize The most redirects remembered, 0 to follow every redirect every time
+     * @param file The file the redirects are kept in across launches, or null to keep them in
+     *             memory only
+     */
+    synchronized void configure(int maxSize, File file) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.file = file;
+        this.loaded = file == null;
+        trim();
+    }
+
+    synchronized boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    static boolean isPermanent(int status) {
+        return status == 301 || status == 308;
+    }
+
+    /**
+     * Returns where a request to a URL ends up after the permanent redirects it was sent
+     * @param url The URL of the request
+     * @param method The method of the request
+     * @return The URL to send the request to instead, or null when it has not moved
+     */
+    synchronized URL get(URL url, String method) {
+        load();
+        boolean safe = method.equals("GET") || method.equals("HEAD");
+        String current = url.toString();
+        Entry entry = null;
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            Entry next = entries.get(current);
+            if (next == null || (!next.preservesMethod && !safe)) {
+                break;
+            }
+            entry = next;
+            current = next.location;
+        }
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return new URL(entry.location);
+        } catch (MalformedURLException e) {
+            invalidate(url);
+            return null;
+        }
+    }
+
+    /**
+     * Remembers a permanent redirect, unless it leads to another origin
+     * @param from The URL that was requested
+     * @param location The URL it moved to
+     * @param status 301 or 308
+     */
+    synchronized void put(URL from, URL location, int status) {
+        if (maxSize == 0 || from.toString().equals(location.toString()) || !isSameOrigin(from, location)) {
+            return;
+        }
+        load();
+        entries.put(from.toString(), new Entry(location.toString(), status == 308));
+        trim();
+        dirty = true;
+    }
+
+    /**
+     * Forgets the redirects a URL was rewritten through
+     */
+    synchronized void invalidate(URL url) {
+        load();
+        String current = url.toString();
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            Entry entry = entries.remove(current);
+            if (entry == null) {
+                break;
+            }
+            dirty = true;
+            current = entry.location;
+        }
+    }
+
+    /**
+     * Forgets the redirects of a connection sent to a cached location, if its response shows
+     * the location does not serve the request
+     */
+    void onResponse(CapacitorHttpUrlConnection connection, int status) {
+        if (status == 404 || status == 410 || status >= 500) {
+            onError(connection);
+        }
+    }
+
+    /**
+     * Forgets the redirects of a connection sent to a cached location, after a network error
+     */
+    void onError(CapacitorHttpUrlConnection connection) {
+        URL from = connection.getRedirectedFrom();
+        if (from != null) {
+            invalidate(from);
+        }
+    }
+
+    /**
+     * Writes the redirects to the file if they changed since the last save. Called when the app
+     * goes to the background.
+     */
+    void save() {
+        synchronized (saveLock) {
+            File target;
+            Map<String, Entry> snapshot;
+            synchronized (this) {
+                if (!dirty || file == null) {
+                    return;
+                }
+                target = file;
+                snapshot = new LinkedHashMap<>(entries);
+                dirty = false;
+            }
+
+            if (!write(target, snapshot)) {
+                synchronized (this) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+
+    private static boolean write(File file, Map<String, Entry> snapshot) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().location);
+                out.writeBoolean(entry.getValue().preservesMethod);
+            }
+        } catch (IOException e) {
+            Log.w("RedirectCache", "Unable to save redirects: " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+
+        // Renaming replaces the file at once, so a crash never leaves half of it written
+        if (!temp.renameTo(file)) {
+            Log.w("RedirectCache", "Unable to replace " + file);
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+
+        // Written in least recently used order, which reading them back in keeps
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String from = in.readUTF();
+                String location = in.readUTF();
+                entries.put(from, new Entry(location, in.readBoolean()));
+            }
+        } catch (IOException e) {
+            Log.w("RedirectCache", "Unable to load redirects, starting empty: " + e.getMessage());
+            entries.clear();
+        }
+        trim();
+    }
+
+    private void trim() {
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Whether two URLs have the same scheme, host and port
+     */
+    static boolean isSameOrigin(URL a, URL b) {
+        return (
+            a.getProtocol().equalsIgnoreCase(b.getProtocol()) &&
+            a.getHost().equalsIgnoreCase(b.getHost()) &&
+            (a.getPort() == -1 ? a.getDefaultPort() : a.getPort()) == (b.getPort() == -1 ? b.getDefaultPort() : b.getPort())
+        );
+    }
+
+    /**
+     * Whether a redirect response may be remembered, which Cache-Control can forbid
+     */
+    static boolean isCacheable(String cacheControl) {
+        if (cacheControl == null) {
+            return true;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        return !directives.contains("no-store") && !directives.contains("no-cache") && !directives.matches(".*max-age\\s*=\\s*0\\b.*");
+    }
+
+    private static class Entry {
+
+        final String location;
+        final boolean preservesMethod;
+
+        Entry(String location, boolean preservesMethod) {
+            this.location = location;
+            this.preservesMethod = preservesMethod;
+        }
+    }
+}
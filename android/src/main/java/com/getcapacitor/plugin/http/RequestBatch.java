@@ -0,0 +1,155 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONException;
+
+/**
+ * Executes a batch of requests on the {@link RequestDispatcher}, at most {@code concurrency} at
+ * a time. A request that fails is reported in its own result and never fails the batch. Results
+ * are either all returned when the PluginCall resolves, or emitted one by one as they complete.
+ */
+class RequestBatch {
+
+    /**
+     * Sends one request of the batch
+     */
+    @FunctionalInterface
+    interface Sender {
+        JSObject send(JSObject options, CancellationToken token, RequestTimings timings) throws IOException, URISyntaxException, JSONException;
+    }
+
+    private final Sender sender;
+    private final HttpRequestHandler.ResultEmitter onComplete;
+    private final String batchId;
+    private final List<JSObject> requests;
+    private final boolean stream;
+    private final HttpRequestHandler.ResultEmitter emitter;
+    private final CancellationToken[] tokens;
+    private final RequestTimings[] timings;
+    private final JSObject[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicInteger succeeded = new AtomicInteger();
+
+    /**
+     * @param sender Sends each request
+     * @param onComplete Receives the summary once every request has completed
+     * @param emitter Receives each result as it completes, when {@code stream} is set
+     */
+    RequestBatch(
+        Sender sender,
+        HttpRequestHandler.ResultEmitter onComplete,
+        String batchId,
+        List<JSObject> requests,
+        boolean stream,
+        HttpRequestHandler.ResultEmitter emitter
+    ) {
+        this.sender = sender;
+        this.onComplete = onComplete;
+        this.batchId = batchId;
+        this.requests = requests;
+        this.stream = stream;
+        this.emitter = emitter;
+        this.results = new JSObject[requests.size()];
+        this.tokens = new CancellationToken[requests.size()];
+        this.timings = new RequestTimings[requests.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = RequestRegistry.register(requests.get(i).getString("requestId"));
+            timings[i] = RequestTimings.fromOptions(requests.get(i));
+        }
+        this.remaining = new AtomicInteger(requests.size());
+    }
+
+    void start(int concurrency) {
+        if (requests.isEmpty()) {
+            onComplete.emit(buildSummary());
+            return;
+        }
+        for (int i = 0; i < Math.min(Math.max(concurrency, 1), requests.size()); i++) {
+            dispatchNext();
+        }
+    }
+
+    /**
+     * Executes the next request that has not started yet, keeping the same number in flight
+     * as each one completes
+     */
+    private void dispatchNext() {
+        int index = next.getAndIncrement();
+        if (index >= requests.size()) {
+            return;
+        }
+        RequestDispatcher.getInstance().execute(() -> {
+            execute(index);
+            dispatchNext();
+        });
+    }
+
+    private void execute(int index) {
+        JSObject result = new JSObject();
+        result.put("index", index);
+        CancellationToken token = tokens[index];
+        try {
+            token.throwIfCancelled();
+            JSObject response = sender.send(requests.get(index), token, timings[index]);
+            result.put("success", true);
+            result.put("response", response);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            result.put("code", getCode(e));
+        } finally {
+            RequestRegistry.unregister(token);
+        }
+        complete(index, result);
+    }
+
+    private static String getCode(Exception e) {
+        if (e instanceof RequestCancelledException) {
+            return RequestCancelledException.CODE;
+        } else if (e instanceof HostUnavailableException) {
+            return HostUnavailableException.CODE;
+        } else if (e instanceof DeadlineExceededException) {
+            return DeadlineExceededException.CODE;
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    private void complete(int index, JSObject result) {
+        if (result.getBoolean("success", false)) {
+            succeeded.incrementAndGet();
+        }
+
+        if (stream) {
+            result.put("batchId", batchId);
+            emitter.emit(result);
+        } else {
+            results[index] = result;
+        }
+
+        if (remaining.decrementAndGet() == 0) {
+            onComplete.emit(buildSummary());
+        }
+    }
+
+    private JSObject buildSummary() {
+        JSObject summary = new JSObject();
+        summary.put("batchId", batchId);
+        summary.put("total", results.length);
+        summary.put("succeeded", succeeded.get());
+        summary.put("failed", results.length - succeeded.get());
+        if (!stream) {
+            JSArray resultsArray = new JSArray();
+            for (JSObject result : results) {
+                resultsArray.put(result);
+            }
+            summary.put("results", resultsArray);
+        }
+        return summary;
+    }
+}
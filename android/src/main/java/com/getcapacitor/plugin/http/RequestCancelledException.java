@@ -0,0 +1,15 @@
+package com.getcapacitor.plugin.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is aborted through {@link RequestRegistry#cancel(String)}
+ */
+public class RequestCancelledException extends IOException {
+
+    public static final String CODE = "CANCELLED";
+
+    public RequestCancelledException(String requestId) {
+        super("Request " + (requestId != null ? requestId + " " : "") + "was cancelled");
+    }
+}
@@ -0,0 +1,73 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared pool of threads that execute HTTP requests, so each request no longer pays for
+ * starting a thread of its own. Idle threads are released after a minute.
+ * <p>
+ * The pool runs work that completes on its own: requests, batch entries, downloads, hedges and
+ * preconnects. Streams stay open for as long as the server sends events, so they run on
+ * threads of their own from {@link #executeStream(Runnable)}, and open streams never hold the
+ * threads that requests wait for.
+ */
+public class RequestDispatcher {
+    private static final RequestDispatcher INSTANCE = new RequestDispatcher();
+    static final int MAX_THREADS = 64;
+    private final ThreadPoolExecutor executor;
+    // Grows with the streams open, each holding its thread until the stream ends
+    private final ThreadPoolExecutor streamExecutor;
+
+    private RequestDispatcher() {
+        executor = new ThreadPoolExecutor(
+                MAX_THREADS,  // Core pool size
+                MAX_THREADS,  // Max pool size, requests beyond it wait in the queue
+                60,  // Keep alive time (1 min)
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        streamExecutor = new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> new Thread(runnable, "RequestDispatcher-stream")
+        );
+    }
+
+    public static RequestDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    public void execute(Runnable request) {
+        executor.execute(request);
+        if (!executor.getQueue().isEmpty()) {
+            Log.d("RequestDispatcher", "⏳ " + executor.getQueue().size() + " requests waiting for a thread");
+        }
+    }
+
+    /**
+     * Runs a stream, which may stay open indefinitely, outside of the request pool
+     */
+    public void executeStream(Runnable stream) {
+        streamExecutor.execute(stream);
+    }
+
+    /**
+     * Returns the number of requests running, waiting for a thread and completed
+     */
+    public JSObject getMetrics() {
+        JSObject metrics = new JSObject();
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("completed", executor.getCompletedTaskCount());
+        return metrics;
+    }
+}
@@ -0,0 +1,44 @@
+package com.getcapacitor.plugin.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the requests in progress by the id given to them from JavaScript, so they can be
+ * cancelled. Requests are registered when queued, so they can be cancelled before they start.
+ */
+public class RequestRegistry {
+
+    private static final ConcurrentHashMap<String, CancellationToken> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the token of a new request, tracked under {@code requestId} until
+     * {@link #unregister(CancellationToken)} is called. Requests without an id cannot be
+     * cancelled and are not tracked.
+     */
+    public static CancellationToken register(String requestId) {
+        CancellationToken token = new CancellationToken(requestId);
+        if (requestId != null) {
+            tokens.put(requestId, token);
+        }
+        return token;
+    }
+
+    public static void unregister(CancellationToken token) {
+        if (token.getRequestId() != null) {
+            tokens.remove(token.getRequestId(), token);
+        }
+    }
+
+    /**
+     * Cancels the request in progress with the given id
+     * @return false if no such request is in progress
+     */
+    public static boolean cancel(String requestId) {
+        CancellationToken token = tokens.remove(requestId);
+        if (token == null) {
+            return false;
+        }
+        token.cancel();
+        return true;
+    }
+}
@@ -0,0 +1,136 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * Records when a request reaches each phase, using the monotonic clock, so its duration can be
+ * broken down in the response. Disabled timings record nothing.
+ */
+public class RequestTimings {
+
+    static final RequestTimings DISABLED = new RequestTimings(false);
+
+    private final boolean enabled;
+    private final long queued;
+    private long started;
+    private long connected;
+    private long firstByte;
+    private long bodyRead;
+    private long parsed;
+
+    private RequestTimings(boolean enabled) {
+        this.enabled = enabled;
+        this.queued = enabled ? System.nanoTime() : 0;
+    }
+
+    private RequestTimings(RequestTimings request) {
+        this.enabled = true;
+        this.queued = request.queued;
+        this.started = request.started;
+    }
+
+    /**
+     * Starts recording the timings of a request queued now, if its options ask for them
+     * @param options The options of the request, with an optional "timings" flag
+     */
+    public static RequestTimings fromOptions(JSObject options) {
+        return options.optBoolean("timings", false) ? new RequestTimings(true) : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the timings of one attempt of a request that makes several at once, e.g. a hedged
+     * one, queued and started along with the request. Each attempt marks its own phases, which
+     * {@link #copyFrom(RequestTimings)} brings back once one of them is kept.
+     */
+    RequestTimings fork() {
+        return enabled ? new RequestTimings(this) : DISABLED;
+    }
+
+    /**
+     * Takes the phases of the attempt whose response is returned
+     * @param attempt Timings returned by {@link #fork()}
+     */
+    void copyFrom(RequestTimings attempt) {
+        if (enabled && attempt.enabled) {
+            started = attempt.started;
+            connected = attempt.connected;
+            firstByte = attempt.firstByte;
+            bodyRead = attempt.bodyRead;
+            parsed = attempt.parsed;
+        }
+    }
+
+    /**
+     * The request left the queue and a thread started executing it
+     */
+    public void markStarted() {
+        if (enabled) started = System.nanoTime();
+    }
+
+    /**
+     * The connection is established and the request body, if any, is written
+     */
+    public void markConnected() {
+        if (enabled) connected = System.nanoTime();
+    }
+
+    /**
+     * The status line and headers of the response are received
+     */
+    public void markFirstByte() {
+        if (enabled) firstByte = System.nanoTime();
+    }
+
+    /**
+     * The response body is read in full
+     */
+    public void markBodyRead() {
+        if (enabled) bodyRead = System.nanoTime();
+    }
+
+    /**
+     * The response body is converted to what is returned to JavaScript
+     */
+    public void markParsed() {
+        if (enabled) parsed = System.nanoTime();
+    }
+
+    /**
+     * Adds the "timings" of the request to its response. Measuring the size sent over the bridge
+     * serializes the response once more, which is why timings are opt-in.
+     */
+    public void addTo(JSObject response) {
+        if (!enabled) {
+            return;
+        }
+
+        long serializeStart = System.nanoTime();
+        int size = response.toString().length();
+        long serialized = System.nanoTime();
+
+        // A phase that was skipped, e.g. no body read on an error, takes no time
+        long connectedAt = Math.max(connected, started);
+        long firstByteAt = Math.max(firstByte, connectedAt);
+        long bodyReadAt = Math.max(bodyRead, firstByteAt);
+        long parsedAt = Math.max(parsed, bodyReadAt);
+
+        JSObject timings = new JSObject();
+        timings.put("queueWait", millis(started - queued));
+        timings.put("connect", millis(connectedAt - started));
+        timings.put("timeToFirstByte", millis(firstByteAt - connectedAt));
+        timings.put("bodyRead", millis(bodyReadAt - firstByteAt));
+        timings.put("parse", millis(parsedAt - bodyReadAt));
+        timings.put("serialize", millis(serialized - serializeStart));
+        timings.put("total", millis(serialized - queued));
+        timings.put("bridgeSize", size);
+        response.put("timings", timings);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
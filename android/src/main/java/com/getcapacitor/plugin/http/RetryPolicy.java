@@ -0,0 +1,165 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSObject;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.ProtocolException;
+import java.net.UnknownServiceException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.net.ssl.SSLException;
+import org.json.JSONArray;
+
+/**
+ * Decides whether a failed request should be attempted again and how long to wait first,
+ * using exponential backoff with jitter and honoring the server's Retry-After header
+ */
+public class RetryPolicy {
+
+    static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1, 0, new HashSet<>(), false, false);
+
+    private static final int[] DEFAULT_RETRY_STATUSES = { 408, 429, 500, 502, 503, 504 };
+
+    private final int maxAttempts;
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final Set<Integer> retryStatuses;
+    private final boolean retryOnNetworkError;
+    private final boolean respectRetryAfter;
+
+    RetryPolicy(
+        int maxAttempts,
+        long initialDelay,
+        long maxDelay,
+        double backoffMultiplier,
+        double jitter,
+        Set<Integer> retryStatuses,
+        boolean retryOnNetworkError,
+        boolean respectRetryAfter
+    ) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.backoffMultiplier = backoffMultiplier;
+        this.jitter = Math.min(Math.max(jitter, 0), 1);
+        this.retryStatuses = retryStatuses;
+        this.retryOnNetworkError = retryOnNetworkError;
+        this.respectRetryAfter = respectRetryAfter;
+    }
+
+    /**
+     * Builds a policy from the "retry" options of a request
+     * @param options the retry options, or null to never retry
+     */
+    public static RetryPolicy fromOptions(JSObject options) {
+        if (options == null) {
+            return NONE;
+        }
+
+        Set<Integer> retryStatuses = new HashSet<>();
+        JSONArray statuses = options.optJSONArray("retryOnStatus");
+        if (statuses != null) {
+            for (int i = 0; i < statuses.length(); i++) {
+                retryStatuses.add(statuses.optInt(i));
+            }
+        } else {
+            for (int status : DEFAULT_RETRY_STATUSES) {
+                retryStatuses.add(status);
+            }
+        }
+
+        return new RetryPolicy(
+            options.optInt("maxAttempts", 3),
+            options.optLong("initialDelay", 1000),
+            options.optLong("maxDelay", 30 * 1000),
+            options.optDouble("backoffMultiplier", 2),
+            options.optDouble("jitter", 0.5),
+            retryStatuses,
+            options.optBoolean("retryOnNetworkError", true),
+            options.optBoolean("respectRetryAfter", true)
+        );
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * Whether a response with this status code may succeed if attempted again
+     */
+    public boolean isRetryable(int status) {
+        return retryStatuses.contains(status);
+    }
+
+    /**
+     * Whether a request that failed with this exception may succeed if attempted again.
+     * Connection resets, timeouts and DNS failures are transient; malformed requests and
+     * TLS failures are not.
+     */
+    public boolean isRetryable(Exception e) {
+        return (
+            retryOnNetworkError &&
+            e instanceof IOException &&
+            !(e instanceof RequestCancelledException) &&
+            !(e instanceof DeadlineExceededException) &&
+            !(e instanceof SSLException) &&
+            !(e instanceof MalformedURLException) &&
+            !(e instanceof ProtocolException) &&
+            !(e instanceof UnknownServiceException) &&
+            !(e instanceof FileNotFoundException)
+        );
+    }
+
+    /**
+     * Returns how long to wait before the next attempt
+     * @param attempt the number of attempts made so far, starting at 1
+     * @param retryAfter the Retry-After header of the failed response, if any
+     * @return the delay in milliseconds, or -1 if the server asked to wait longer than maxDelay
+     */
+    public long getDelay(int attempt, String retryAfter) {
+        double backoff = initialDelay * Math.pow(backoffMultiplier, attempt - 1);
+        long delay = (long) Math.min(backoff, maxDelay);
+        delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+
+        if (respectRetryAfter && retryAfter != null) {
+            long requested = parseRetryAfter(retryAfter);
+            if (requested > maxDelay) {
+                return -1;
+            }
+            delay = Math.max(delay, requested);
+        }
+
+        return delay;
+    }
+
+    /**
+     * Parses a Retry-After header, given either in seconds or as an HTTP date
+     * @return the delay in milliseconds, or 0 if the value cannot be parsed
+     */
+    static long parseRetryAfter(String value) {
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException ignored) {}
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, format.parse(trimmed).getTime() - System.currentTimeMillis());
+        } catch (ParseException ignored) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.getcapacitor.plugin.http;
+
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * The TLS socket factory shared by every connection of the plugin: requests, uploads, downloads
+ * and streams all get their sockets from it, so a session negotiated on one thread is resumed on
+ * any other instead of paying for a full handshake. It wraps the default factory of
+ * {@link HttpsURLConnection}, so a factory the app installed there, e.g. to pin certificates,
+ * still creates every socket. The session cache of the platform's context is bounded in size
+ * and in time; one the app installed keeps its own limits. Handshakes are counted as full or
+ * resumed for {@link HttpMetrics}.
+ */
+class TlsSessionCache {
+
+    static final int DEFAULT_CACHE_SIZE = 64;
+    static final int DEFAULT_TIMEOUT_SECONDS = 3600;
+
+    private static final TlsSessionCache INSTANCE = new TlsSessionCache();
+
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+    private CountingSocketFactory socketFactory;
+
+    private TlsSessionCache() {}
+
+    static TlsSessionCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sizes the session cache, applied to the platform's context if it is already in use
+     * @param cacheSize The maximum number of sessions kept, 0 for no limit
+     * @param timeoutSeconds How long a session can be resumed, 0 for no limit
+     */
+    synchronized void configure(int cacheSize, int timeoutSeconds) {
+        this.cacheSize = cacheSize;
+        this.timeoutSeconds = timeoutSeconds;
+        if (socketFactory != null) {
+            applyLimits(socketFactory.delegate);
+        }
+    }
+
+    /**
+     * Returns the socket factory every HTTPS connection should use, wrapping the current
+     * default of {@link HttpsURLConnection} again whenever the app replaces it
+     */
+    synchronized SSLSocketFactory getSocketFactory() {
+        SSLSocketFactory current = HttpsURLConnection.getDefaultSSLSocketFactory();
+        if (socketFactory == null || socketFactory.delegate != current) {
+            socketFactory = new CountingSocketFactory(current);
+            applyLimits(current);
+        }
+        return socketFactory;
+    }
+
+    /**
+     * Counts a completed handshake as resumed when its session was created before the socket,
+     * i.e. it came from the session cache, or as full otherwise
+     */
+    void recordHandshake(long socketCreatedAt, long sessionCreatedAt) {
+        if (sessionCreatedAt < socketCreatedAt) {
+            resumedHandshakes.incrementAndGet();
+        } else {
+            fullHandshakes.incrementAndGet();
+        }
+    }
+
+    void reset() {
+        fullHandshakes.set(0);
+        resumedHandshakes.set(0);
+    }
+
+    JSObject toJSObject() {
+        JSObject output = new JSObject();
+        output.put("fullHandshakes", fullHandshakes.get());
+        output.put("resumedHandshakes", resumedHandshakes.get());
+        return output;
+    }
+
+    /**
+     * Bounds the session cache of the platform's context, when a factory creates its sockets
+     */
+    private void applyLimits(SSLSocketFactory factory) {
+        if (factory != SSLSocketFactory.getDefault()) {
+            return;
+        }
+        try {
+            SSLSessionContext sessions = SSLContext.getDefault().getClientSessionContext();
+            sessions.setSessionCacheSize(cacheSize);
+            sessions.setSessionTimeout(timeoutSeconds);
+        } catch (GeneralSecurityException e) {
+            Log.w("TlsSessionCache", "Unable to size the TLS session cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates sockets from another factory and counts their handshakes
+     */
+    private class CountingSocketFactory extends SSLSocketFactory {
+
+        final SSLSocketFactory delegate;
+
+        CountingSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return count(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return count(delegate.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return count(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return count(delegate.createSocket(address, port, localAddress, localPort));
+        }
+
+        private Socket count(Socket socket) {
+            if (socket instanceof SSLSocket) {
+                final long createdAt = System.currentTimeMillis();
+                ((SSLSocket) socket).addHandshakeCompletedListener(event ->
+                    recordHandshake(createdAt, event.getSession().getCreationTime())
+                );
+            }
+            return socket;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.getcapacitor.plugin.http;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the results of a batch of uploads, emitting each one as it completes and resolving
+ * the PluginCall with a summary once every upload has finished
+ */
+class UploadBatch {
+
+    private final HttpRequestHandler.ResultEmitter onComplete;
+    private final String batchId;
+    private final HttpRequestHandler.ResultEmitter emitter;
+    private final JSObject[] results;
+    private final AtomicInteger remaining;
+    private final AtomicInteger succeeded = new AtomicInteger();
+
+    /**
+     * @param onComplete Receives the summary once every upload has finished
+     * @param emitter Receives each result as it completes
+     */
+    UploadBatch(HttpRequestHandler.ResultEmitter onComplete, String batchId, int size, HttpRequestHandler.ResultEmitter emitter) {
+        this.onComplete = onComplete;
+        this.batchId = batchId;
+        this.emitter = emitter;
+        this.results = new JSObject[size];
+        this.remaining = new AtomicInteger(size);
+
+        if (size == 0) {
+            onComplete.emit(buildSummary());
+        }
+    }
+
+    /**
+     * Returns the callback for the upload at {@code index} in the batch
+     */
+    UploadTaskCallback callbackFor(int index, String id) {
+        return new UploadTaskCallback() {
+            @Override
+            public void onSuccess(JSObject response) {
+                Integer status = response.getInteger("status");
+                JSObject result = buildResult(index, id, status != null && status >= 200 && status < 300);
+                result.put("status", status);
+                complete(index, result, response);
+            }
+
+            @Override
+            public void onError(String message, String code, Exception error) {
+                JSObject result = buildResult(index, id, false);
+                result.put("error", message);
+                result.put("code", code);
+                complete(index, result, null);
+            }
+        };
+    }
+
+    private JSObject buildResult(int index, String id, boolean success) {
+        JSObject result = new JSObject();
+        result.put("index", index);
+        result.put("id", id);
+        result.put("success", success);
+        return result;
+    }
+
+    private void complete(int index, JSObject result, JSObject response) {
+        results[index] = result;
+        if (result.getBoolean("success", false)) {
+            succeeded.incrementAndGet();
+        }
+
+        // The full response is only sent with the event, the summary holds the outcome
+        JSObject event = new JSObject();
+        event.put("batchId", batchId);
+        event.put("index", index);
+        event.put("id", result.getString("id"));
+        event.put("success", result.getBoolean("success", false));
+        event.put("status", result.opt("status"));
+        event.put("error", result.opt("error"));
+        event.put("code", result.opt("code"));
+        event.put("response", response);
+        emitter.emit(event);
+
+        if (remaining.decrementAndGet() == 0) {
+            onComplete.emit(buildSummary());
+        }
+    }
+
+    private JSObject buildSummary() {
+        JSArray resultsArray = new JSArray();
+        for (JSObject result : results) {
+            resultsArray.put(result);
+        }
+
+        JSObject summary = new JSObject();
+        summary.put("batchId", batchId);
+        summary.put("total", results.length);
+        summary.put("succeeded", succeeded.get());
+        summary.put("failed", results.length - succeeded.get());
+        summary.put("results", resultsArray);
+        return summary;
+    }
+}
@@ -1,6 +1,8 @@
 package com.getcapacitor.plugin.http;
 
 import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +37,27 @@ public class UploadQueue {
                 executor.getActiveCount() + " executing");
     }
 
+    public void addUploads(List<? extends Runnable> uploadTasks) {
+        Log.d("UploadQueue", "📥 Queueing " + uploadTasks.size() + " uploads. Current queue size: " + executor.getQueue().size());
+        for (Runnable uploadTask : uploadTasks) {
+            executor.execute(uploadTask);
+        }
+        Log.d("UploadQueue", "📊 Queue status: " +
+                (executor.getQueue().size() + executor.getActiveCount()) + " total, " +
+                executor.getActiveCount() + " executing");
+    }
+
+    /**
+     * Returns the number of uploads running, waiting and completed
+     */
+    public JSObject getMetrics() {
+        JSObject metrics = new JSObject();
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("completed", executor.getCompletedTaskCount());
+        return metrics;
+    }
+
     private int calculateOptimalConcurrency() {
         Runtime runtime = Runtime.getRuntime();
         long maxMemory = runtime.maxMemory() / (1024 * 1024); // in MB
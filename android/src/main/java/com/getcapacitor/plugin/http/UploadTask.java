@@ -3,50 +3,105 @@ package com.getcapacitor.plugin.http;
 import android.content.Context;
 import android.util.Log;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 
+import org.json.JSONException;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class UploadTask implements Runnable {
-    private final CapacitorHttpUrlConnection connection;
+    private static final String[] RESPONSE_KEYS = { "status", "headers", "url", "data", "error" };
+
+    private final String url;
+    private final String method;
+    private final ConnectionFactory connectionFactory;
     private final File file;
     private final JSObject data;
     private final JSObject resizeOptions;
+    private final List<JSObject> variants;
+    private final boolean separateVariantRequests;
     private final String uploadId;
     private final String paramName;
     private final String widthHeader;
     private final String heightHeader;
     private final String sizeHeader;
     private final ResponseType responseType;
+    private final RetryPolicy retryPolicy;
+    private final String idempotencyKeyHeader;
+    private final String idempotencyKey;
+    private final Deadline deadline;
     private final UploadTaskCallback callback;
     private static final int DEFAULT_CONNECTION_TIMEOUT = 60 * 1000;  // 1 minute
     private static final int DEFAULT_READ_TIMEOUT = 300 * 1000;       // 5 minutes
     private final Context context;  // Need context for image operations
+    private final List<ImageUtils.ImageResult> pinned = new ArrayList<>();  // Cached images in use by this task
+
+    /**
+     * Opens a new connection for each request the task makes
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        CapacitorHttpUrlConnection open(String url) throws IOException, URISyntaxException;
+    }
+
+    /**
+     * Writes the request body of one attempt to a freshly opened connection
+     */
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(CapacitorHttpUrlConnection connection) throws IOException;
+    }
 
     public UploadTask(
-            CapacitorHttpUrlConnection connection,
+            String url,
+            String method,
+            ConnectionFactory connectionFactory,
             File file,
             JSObject data,
             JSObject resizeOptions,
+            List<JSObject> variants,
+            boolean separateVariantRequests,
             String uploadId,
             String paramName,
             String widthHeader,
             String heightHeader,
             String sizeHeader,
             ResponseType responseType,
+            RetryPolicy retryPolicy,
+            String idempotencyKeyHeader,
+            String idempotencyKey,
+            Deadline deadline,
             Context context,
             UploadTaskCallback callback
     ) {
-        this.connection = connection;
+        this.url = url;
+        this.method = method;
+        this.connectionFactory = connectionFactory;
         this.file = file;
         this.data = data;
         this.resizeOptions = resizeOptions;
+        this.variants = variants;
+        this.separateVariantRequests = separateVariantRequests;
         this.uploadId = uploadId;
         this.paramName = paramName;
         this.widthHeader = widthHeader;
         this.heightHeader = heightHeader;
         this.sizeHeader = sizeHeader;
         this.responseType = responseType;
+        this.retryPolicy = retryPolicy;
+        this.idempotencyKeyHeader = idempotencyKeyHeader;
+        this.idempotencyKey = idempotencyKey;
+        this.deadline = deadline;
         this.callback = callback;
         this.context = context;
     }
@@ -55,27 +110,274 @@ public class UploadTask implements Runnable {
     public void run() {
         Log.d("UploadQueue", "▶️ Starting upload " + uploadId);
 
+        ImageCache cache = ImageCache.getInstance(context);
+        HttpMetrics metrics = HttpMetrics.getInstance();
+        long start = System.nanoTime();
         try {
-            ImageUtils.ImageResult result = resizeOptions != null
-                ? ImageUtils.resizeImage(context, file, resizeOptions, uploadId)
-                : ImageUtils.getImageResult(file);
-
-            data.put(widthHeader, String.valueOf(result.width));
-            data.put(heightHeader, String.valueOf(result.height));
-            data.put(sizeHeader, String.valueOf(result.fileSize));
+            JSObject response;
+            if (variants != null && !variants.isEmpty()) {
+                response = uploadVariants();
+            } else {
+                long resizeStart = System.nanoTime();
+                ImageUtils.ImageResult result = resizeOptions != null
+                    ? ImageUtils.resizeImage(context, file, resizeOptions, uploadId)
+                    : ImageUtils.getImageResult(file);
+                pinned.add(result);
+                metrics.recordUploadStage("resize", resizeStart);
 
-            FormUploader builder = new FormUploader(connection.getHttpConnection());
-            builder.addFilePart(paramName, result.file, data);
-            builder.finish();
+                data.put(widthHeader, String.valueOf(result.width));
+                data.put(heightHeader, String.valueOf(result.height));
+                data.put(sizeHeader, String.valueOf(result.fileSize));
 
-            JSObject response = HttpResponseBuilder.buildResponse(connection, responseType);
+                long uploadStart = System.nanoTime();
+                response = send(url, idempotencyKey, connection -> {
+                    FormUploader builder = new FormUploader(connection.getHttpConnection());
+                    builder.addFilePart(paramName, result.file, data);
+                    builder.finish();
+                });
+                metrics.recordUploadStage("upload", uploadStart);
+                onUploaded(cache, result, response);
+            }
             Integer statusCode = response.getInteger("status");
 
             Log.d("UploadQueue", "✅ Upload " + uploadId + " completed with status: " + statusCode);
             callback.onSuccess(response);
         } catch (Exception e) {
             Log.e("UploadQueue", "❌ Upload " + uploadId + " failed: " + e.getMessage());
-            callback.onError(e.getMessage(), "UPLOAD", e);
+            callback.onError(e.getMessage(), e instanceof DeadlineExceededException ? DeadlineExceededException.CODE : "UPLOAD", e);
+        } finally {
+            metrics.recordUploadStage("total", start);
+            // Anything not uploaded successfully stays cached for a retry
+            for (ImageUtils.ImageResult result : pinned) {
+                cache.release(result.file);
+            }
+            pinned.clear();
+        }
+    }
+
+    /**
+     * Deletes the cached image once the server has accepted it
+     */
+    private void onUploaded(ImageCache cache, ImageUtils.ImageResult result, JSObject response) {
+        if (isSuccess(response) && pinned.remove(result)) {
+            cache.remove(result.file);
+        }
+    }
+
+    private static boolean isSuccess(JSObject response) {
+        Integer status = response.getInteger("status");
+        return status != null && status >= 200 && status < 300;
+    }
+
+    /**
+     * Returns the response that stands for variants uploaded separately: the first that
+     * failed, so a failed variant is not hidden behind a successful one, else the first
+     */
+    static JSObject pickResponse(List<JSObject> responses) {
+        for (JSObject response : responses) {
+            if (!isSuccess(response)) {
+                return response;
+            }
+        }
+        return responses.get(0);
+    }
+
+    /**
+     * Resizes every variant from a single decode of the file, then uploads them either as
+     * parts of one multipart request or as one request per variant.
+     * @return the response of the multipart request, or of the first variant's request that
+     *         failed, else the first one's, with a "variants" array describing each uploaded image
+     */
+    private JSObject uploadVariants() throws IOException, URISyntaxException, JSONException {
+        ImageCache cache = ImageCache.getInstance(context);
+        HttpMetrics metrics = HttpMetrics.getInstance();
+        long resizeStart = System.nanoTime();
+        List<ImageUtils.ImageResult> results = ImageUtils.resizeImageVariants(context, file, variants, uploadId);
+        pinned.addAll(results);
+        metrics.recordUploadStage("resize", resizeStart);
+        long uploadStart = System.nanoTime();
+
+        JSArray variantsOutput = new JSArray();
+        JSObject response;
+
+        if (separateVariantRequests) {
+            List<JSObject> responses = new ArrayList<>();
+            for (int i = 0; i < variants.size(); i++) {
+                JSObject variant = variants.get(i);
+                ImageUtils.ImageResult result = results.get(i);
+
+                JSObject variantData = merge(data, variant.getJSObject("data"));
+                variantData.put(widthHeader, String.valueOf(result.width));
+                variantData.put(heightHeader, String.valueOf(result.height));
+                variantData.put(sizeHeader, String.valueOf(result.fileSize));
+
+                // Each variant is its own operation, so it gets its own idempotency key
+                String variantKey = idempotencyKey != null ? idempotencyKey + ":" + getVariantName(variant) : null;
+                JSObject variantResponse = send(variant.getString("url", url), variantKey, connection -> {
+                    FormUploader builder = new FormUploader(connection.getHttpConnection());
+                    builder.addFilePart(getVariantName(variant), result.file, variantData);
+                    builder.finish();
+                });
+                onUploaded(cache, result, variantResponse);
+                responses.add(variantResponse);
+                variantsOutput.put(buildVariantOutput(variant, result).put("response", variantResponse));
+            }
+            response = new JSObject(pickResponse(responses), RESPONSE_KEYS);
+        } else {
+            JSObject multipartData = merge(data, null);
+            Map<String, File> files = new LinkedHashMap<>();
+            for (int i = 0; i < variants.size(); i++) {
+                String name = getVariantName(variants.get(i));
+                ImageUtils.ImageResult result = results.get(i);
+
+                // Metadata fields are namespaced per variant, e.g. thumbnail[X-Image-Width]
+                multipartData.put(name + "[" + widthHeader + "]", String.valueOf(result.width));
+                multipartData.put(name + "[" + heightHeader + "]", String.valueOf(result.height));
+                multipartData.put(name + "[" + sizeHeader + "]", String.valueOf(result.fileSize));
+                files.put(name, result.file);
+                variantsOutput.put(buildVariantOutput(variants.get(i), result));
+            }
+
+            response = send(url, idempotencyKey, connection -> {
+                FormUploader builder = new FormUploader(connection.getHttpConnection());
+                builder.addFileParts(files, multipartData);
+                builder.finish();
+            });
+            for (ImageUtils.ImageResult result : results) {
+                onUploaded(cache, result, response);
+            }
+        }
+
+        metrics.recordUploadStage("upload", uploadStart);
+        response.put("variants", variantsOutput);
+        return response;
+    }
+
+    /**
+     * Sends a request, attempting it again according to the retry policy when it fails with a
+     * retryable status or network error. Every attempt re-sends the already processed files
+     * with the same idempotency key. Attempts stop once the upload's deadline, if any, passes.
+     * @return the response of the last attempt
+     */
+    private JSObject send(String url, String idempotencyKey, RequestWriter writer)
+        throws IOException, URISyntaxException, JSONException {
+        return Deadline.enforce(deadline, new CancellationToken(uploadId), token -> send(url, idempotencyKey, writer, token));
+    }
+
+    private JSObject send(String url, String idempotencyKey, RequestWriter writer, CancellationToken token)
+        throws IOException, URISyntaxException, JSONException {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            long delay;
+            try {
+                // The Retry-After of the last response the interceptors let through
+                String[] retryAfter = new String[1];
+                JSObject response = InterceptorChain.execute(new URL(url), method, token, headers -> {
+                    CapacitorHttpUrlConnection connection = open(url, headers, idempotencyKey);
+                    JSObject sent = exchange(connection, writer, token);
+                    retryAfter[0] = connection.getHeaderField("Retry-After");
+                    return sent;
+                });
+                int status = response.getInteger("status", 0);
+                if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(status)) {
+                    return response;
+                }
+                delay = retryPolicy.getDelay(attempt, retryAfter[0]);
+                if (delay < 0 || !canRetryAfter(delay)) {
+                    return response;
+                }
+                Log.w("UploadQueue", "🔁 Upload " + uploadId + " got status " + status + ", retrying in " + delay + "ms");
+            } catch (IOException e) {
+                if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(e)) {
+                    throw e;
+                }
+                // A host that is unavailable says how long it will be
+                String retryAfter = e instanceof HostUnavailableException ? ((HostUnavailableException) e).getRetryAfterHeader() : null;
+                delay = retryPolicy.getDelay(attempt, retryAfter);
+                if (delay < 0 || !canRetryAfter(delay)) {
+                    throw e;
+                }
+                Log.w("UploadQueue", "🔁 Upload " + uploadId + " failed: " + e.getMessage() + ", retrying in " + delay + "ms");
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Upload " + uploadId + " interrupted while waiting to retry");
+            }
+        }
+    }
+
+    /**
+     * Whether another attempt could still start before the deadline after waiting
+     */
+    private boolean canRetryAfter(long delay) {
+        return deadline == null || delay < deadline.remaining();
+    }
+
+    private CapacitorHttpUrlConnection open(String url, JSObject headers, String idempotencyKey) throws IOException, URISyntaxException {
+        CapacitorHttpUrlConnection connection = connectionFactory.open(url);
+        connection.setRequestHeaders(headers);
+        if (idempotencyKey != null) {
+            connection.getHttpConnection().setRequestProperty(idempotencyKeyHeader, idempotencyKey);
+        }
+        return connection;
+    }
+
+    /**
+     * Sends one attempt of a request on its connection and reads the response
+     */
+    private JSObject exchange(CapacitorHttpUrlConnection connection, RequestWriter writer, CancellationToken token)
+        throws IOException, JSONException {
+        // Uploads are only cancelled by their deadline
+        HostAdmission.Permit permit = HostAdmission.getInstance().acquire(connection.getURL(), token);
+        long start = System.nanoTime();
+        try {
+            token.attach(connection.getHttpConnection());
+            writer.write(connection);
+            JSObject response = HttpResponseBuilder.buildResponse(connection, responseType);
+            int status = response.getInteger("status", 0);
+            HttpMetrics.getInstance().recordResponse(connection.getURL(), status, start);
+            RedirectCache.getInstance().onResponse(connection, status);
+            permit.release(status, connection.getHeaderField("Retry-After"));
+            return response;
+        } catch (IOException e) {
+            connection.getHttpConnection().disconnect();
+            // Uploads are only cancelled when past their deadline
+            throw HttpRequestHandler.failed(e, token, connection.getURL(), start, connection.getRedirectedFrom(), permit);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private String getVariantName(JSObject variant) {
+        return variant.getString("name", paramName);
+    }
+
+    private JSObject buildVariantOutput(JSObject variant, ImageUtils.ImageResult result) {
+        JSObject output = new JSObject();
+        output.put("name", getVariantName(variant));
+        output.put("width", result.width);
+        output.put("height", result.height);
+        output.put("fileSize", result.fileSize);
+        return output;
+    }
+
+    /**
+     * Returns a new JSObject with the fields of {@code base}, overwritten by those of {@code overrides}
+     */
+    static JSObject merge(JSObject base, JSObject overrides) throws JSONException {
+        JSObject merged = new JSObject();
+        for (JSObject source : new JSObject[] { base, overrides }) {
+            if (source == null) continue;
+            Iterator<String> keys = source.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                merged.put(key, source.get(key));
+            }
         }
+        return merged;
     }
 }
@@ -0,0 +1,74 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class CookieHeaderCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CookieHeaderCache.Loader loader = url -> "n=" + loads.incrementAndGet();
+
+    @Test
+    public void get_loads_each_path_once_ignoring_the_query() {
+        CookieHeaderCache cache = new CookieHeaderCache(60_000);
+
+        assertEquals("n=1", cache.get(URI.create("https://api.example.com/v1/items?page=1"), loader));
+        assertEquals("n=1", cache.get(URI.create("https://API.example.com/v1/items?page=2"), loader));
+        assertEquals("n=2", cache.get(URI.create("https://api.example.com/v1/users"), loader));
+    }
+
+    @Test
+    public void get_caches_the_absence_of_cookies() {
+        CookieHeaderCache cache = new CookieHeaderCache(60_000);
+        CookieHeaderCache.Loader none = url -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        assertNull(cache.get(URI.create("https://example.com/"), none));
+        assertNull(cache.get(URI.create("https://example.com/"), none));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidate_drops_only_entries_the_cookie_applies_to() {
+        CookieHeaderCache cache = new CookieHeaderCache(60_000);
+        cache.get(URI.create("https://api.example.com/v1/items"), loader);
+        cache.get(URI.create("https://www.example.com/v1/items"), loader);
+        cache.get(URI.create("https://api.example.com/v2/items"), loader);
+        cache.get(URI.create("https://other.com/v1/items"), loader);
+
+        cache.invalidate("https://api.example.com/login", "token=a; Domain=.example.com; Path=/v1");
+
+        assertEquals(2, cache.size());
+        assertEquals("n=3", cache.get(URI.create("https://api.example.com/v2/items"), loader));
+        assertEquals("n=5", cache.get(URI.create("https://api.example.com/v1/items"), loader));
+    }
+
+    @Test
+    public void invalidate_defaults_to_the_host_and_directory_of_the_url() {
+        CookieHeaderCache cache = new CookieHeaderCache(60_000);
+        cache.get(URI.create("https://api.example.com/account/profile"), loader);
+        cache.get(URI.create("https://www.example.com/account/profile"), loader);
+        cache.get(URI.create("https://api.example.com/items"), loader);
+
+        cache.invalidate("https://api.example.com/account/login", "session=b");
+
+        assertEquals(2, cache.size());
+        assertEquals("n=4", cache.get(URI.create("https://api.example.com/account/profile"), loader));
+    }
+
+    @Test
+    public void entries_expire_after_the_ttl() throws InterruptedException {
+        CookieHeaderCache cache = new CookieHeaderCache(1);
+
+        cache.get(URI.create("https://example.com/"), loader);
+        Thread.sleep(5);
+
+        assertEquals("n=2", cache.get(URI.create("https://example.com/"), loader));
+    }
+}
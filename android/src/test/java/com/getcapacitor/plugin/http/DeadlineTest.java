@@ -0,0 +1,51 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import org.junit.Test;
+
+public class DeadlineTest {
+
+    private final CancellationToken token = new CancellationToken("test");
+
+    @Test
+    public void a_call_running_past_its_deadline_is_aborted_as_exceeded() throws Exception {
+        JSObject options = new JSObject().put("deadline", 50);
+        long start = System.nanoTime();
+        try {
+            Deadline.enforce(options, token, callToken -> {
+                callToken.sleep(10_000);
+                return new JSObject();
+            });
+            fail();
+        } catch (DeadlineExceededException e) {
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        }
+        assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void a_cancelled_call_is_not_reported_as_exceeded() throws Exception {
+        Deadline.Watch watch = new Deadline(10_000).watch(token);
+        token.cancel();
+
+        IOException error = watch.translate(new RequestCancelledException("test"));
+
+        assertTrue(error instanceof RequestCancelledException);
+        assertTrue(watch.getToken().isCancelled());
+        watch.close();
+    }
+
+    @Test
+    public void a_call_without_a_deadline_runs_with_its_own_token() throws Exception {
+        JSObject response = Deadline.enforce(new JSObject(), token, callToken -> new JSObject().put("same", callToken == token));
+
+        assertTrue(response.getBool("same"));
+        assertEquals(null, Deadline.fromOptions(new JSObject().put("deadline", 0)));
+    }
+}
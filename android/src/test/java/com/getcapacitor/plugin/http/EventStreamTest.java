@@ -0,0 +1,78 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSObject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class EventStreamTest {
+
+    private final List<JSObject> batches = new ArrayList<>();
+
+    @Test
+    public void readEvents_dispatches_at_blank_lines() throws IOException, JSONException {
+        EventStream stream = stream(new JSObject());
+
+        stream.readEvents(reader("\uFEFF: comment\nid: 1\ndata: first\ndata:second\n\nevent: update\nid: 2\nretry: 500\ndata: {}\n\ndata: cut off"));
+        stream.flush();
+
+        JSONArray events = batches.get(0).getJSONArray("events");
+        assertEquals(2, events.length());
+        assertEquals("{\"type\":\"message\",\"data\":\"first\\nsecond\",\"id\":\"1\"}", events.get(0).toString());
+        assertEquals("{\"type\":\"update\",\"data\":\"{}\",\"id\":\"2\"}", events.get(1).toString());
+    }
+
+    @Test
+    public void readRecords_parses_one_value_per_line() throws IOException, JSONException {
+        EventStream stream = stream(new JSObject());
+
+        stream.readRecords(reader("{\"a\":1}\n\n[2]\n\"three\"\n"));
+        stream.flush();
+
+        assertEquals("[{\"a\":1},[2],\"three\"]", batches.get(0).getJSONArray("events").toString());
+    }
+
+    @Test
+    public void events_are_emitted_in_batches_of_batchSize() throws IOException, JSONException {
+        EventStream stream = stream(new JSObject().put("batchSize", 2));
+
+        stream.readRecords(reader("1\n2\n3\n4\n5\n"));
+        stream.flush();
+
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(0).getJSONArray("events").length());
+        assertEquals(1, batches.get(2).getJSONArray("events").length());
+        assertEquals("stream", batches.get(2).getString("requestId"));
+    }
+
+    @Test
+    public void Format_parse_accepts_either_case_and_rejects_unknown_formats() {
+        assertEquals(EventStream.Format.SSE, EventStream.Format.parse("sse"));
+        assertEquals(EventStream.Format.NDJSON, EventStream.Format.parse("NDJSON"));
+        assertNull(EventStream.Format.parse(null));
+        try {
+            EventStream.Format.parse("json");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("json"));
+        }
+    }
+
+    private EventStream stream(JSObject options) {
+        return new EventStream(options, "stream", new CancellationToken("stream"), batches::add);
+    }
+
+    private static BufferedReader reader(String body) {
+        return new BufferedReader(new StringReader(body));
+    }
+}
@@ -0,0 +1,142 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class HedgedRequestTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    public void a_stalled_attempt_loses_to_the_hedge_and_is_cancelled() throws Exception {
+        CancellationToken[] stalled = new CancellationToken[1];
+        HedgedRequest request = new HedgedRequest(50, new CancellationToken("hedged"), RequestTimings.DISABLED, (token, timings, onResponse) -> {
+            if (attempts.incrementAndGet() == 1) {
+                stalled[0] = token;
+                token.sleep(10_000);
+            }
+            onResponse.run();
+            return new JSObject().put("status", 200).put("attempt", attempts.get());
+        });
+
+        long start = System.nanoTime();
+        JSObject response = request.execute();
+
+        assertEquals(2, (int) response.getInteger("attempt"));
+        assertTrue(stalled[0].isCancelled());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    public void the_losing_attempt_is_neither_a_host_failure_nor_a_redirect_error() throws Exception {
+        // Only failures open the circuit, so the loser recorded as one would fail the host
+        HostAdmission admission = new HostAdmission();
+        admission.configure(6, 100, 1, 60000);
+        URL from = new URL("https://loser.example.com/old");
+        URL url = new URL("https://loser.example.com/a");
+        RedirectCache.getInstance().put(from, url, 301);
+        IOException[] lost = new IOException[1];
+        HedgedRequest request = new HedgedRequest(50, new CancellationToken("hedged"), RequestTimings.DISABLED, (token, timings, onResponse) -> {
+            HostAdmission.Permit permit = admission.acquire(url, token);
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    token.sleep(10_000);
+                } catch (IOException e) {
+                    // What a disconnected read throws
+                    lost[0] = HttpRequestHandler.failed(new SocketException("Socket closed"), token, url, System.nanoTime(), from, permit);
+                    throw lost[0];
+                }
+            }
+            onResponse.run();
+            permit.release(200, null);
+            return new JSObject().put("status", 200);
+        });
+
+        request.execute();
+        for (int i = 0; i < 100 && lost[0] == null; i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(lost[0] instanceof RequestCancelledException);
+        admission.acquire(url, new CancellationToken("next")).release();
+        assertEquals(url.toString(), RedirectCache.getInstance().get(from, "GET").toString());
+        RedirectCache.getInstance().invalidate(from);
+    }
+
+    @Test
+    public void each_attempt_records_its_own_timings_and_the_winners_are_kept() throws Exception {
+        RequestTimings timings = RequestTimings.fromOptions(new JSObject().put("timings", true));
+        timings.markStarted();
+        List<RequestTimings> forked = new CopyOnWriteArrayList<>();
+        RequestTimings[] winner = new RequestTimings[1];
+        HedgedRequest request = new HedgedRequest(50, new CancellationToken("hedged"), timings, (token, attemptTimings, onResponse) -> {
+            forked.add(attemptTimings);
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    token.sleep(10_000);
+                } finally {
+                    // The loser marks its phases after the winner responded
+                    attemptTimings.markConnected();
+                }
+            }
+            token.sleep(20);
+            attemptTimings.markConnected();
+            winner[0] = attemptTimings;
+            onResponse.run();
+            return new JSObject().put("status", 200);
+        });
+
+        request.execute();
+        Thread.sleep(50);
+
+        assertEquals(2, forked.size());
+        assertNotSame(forked.get(0), forked.get(1));
+        assertNotSame(timings, forked.get(0));
+        assertEquals(connect(winner[0]), connect(timings), 0);
+    }
+
+    private static double connect(RequestTimings timings) throws JSONException {
+        JSObject response = new JSObject();
+        timings.addTo(response);
+        return response.getJSObject("timings").getDouble("connect");
+    }
+
+    @Test
+    public void an_attempt_responding_within_the_delay_is_not_hedged() throws Exception {
+        HedgedRequest request = new HedgedRequest(1000, new CancellationToken("hedged"), RequestTimings.DISABLED, (token, timings, onResponse) -> {
+            attempts.incrementAndGet();
+            onResponse.run();
+            return new JSObject().put("status", 200);
+        });
+
+        request.execute();
+        Thread.sleep(50);
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void getDelay_hedges_only_idempotent_requests_that_opt_in() throws Exception {
+        URL url = new URL("https://api.example.com/");
+
+        assertEquals(-1, HedgedRequest.getDelay(new JSObject(), "GET", url));
+        assertEquals(-1, HedgedRequest.getDelay(new JSObject().put("hedge", true), "POST", url));
+        assertEquals(HedgedRequest.DEFAULT_DELAY, HedgedRequest.getDelay(new JSObject().put("hedge", true), "GET", url));
+        assertEquals(120, HedgedRequest.getDelay(hedge(120), "HEAD", url));
+    }
+
+    private static JSObject hedge(long delay) throws JSONException {
+        return new JSObject().put("hedge", new JSObject().put("delay", delay));
+    }
+}
@@ -0,0 +1,108 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class HostAdmissionTest {
+
+    private final HostAdmission admission = new HostAdmission();
+    private final CancellationToken token = new CancellationToken("test");
+
+    @Test
+    public void acquire_waits_for_a_slot_of_the_same_host() throws Exception {
+        admission.configure(1, 50, 10, 1000);
+        HostAdmission.Permit first = admission.acquire(new URL("https://cdn.example.com/a"), token);
+        admission.acquire(new URL("https://api.example.com/"), token).release(200, null);
+
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            try {
+                admission.acquire(new URL("https://CDN.example.com/b"), token).release();
+                admitted.countDown();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        waiting.start();
+
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+        first.release(200, null);
+        assertTrue(admitted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void circuit_opens_at_the_failure_rate_and_closes_after_a_probe() throws Exception {
+        admission.configure(6, 50, 4, 50);
+        URL url = new URL("https://cdn.example.com/");
+        admission.acquire(url, token).release(200, null);
+        admission.acquire(url, token).release(500, null);
+        admission.acquire(url, token).release(200, null);
+        admission.acquire(url, token).release(new IOException("reset"));
+
+        assertUnavailable(url);
+
+        Thread.sleep(80);
+        HostAdmission.Permit probe = admission.acquire(url, token);
+        assertUnavailable(url);
+        probe.release(200, null);
+        admission.acquire(url, token).release(200, null);
+    }
+
+    @Test
+    public void cancelled_requests_do_not_count_as_failures() throws Exception {
+        admission.configure(6, 50, 2, 60000);
+        URL url = new URL("https://cdn.example.com/");
+        admission.acquire(url, token).release(new RequestCancelledException("a"));
+        admission.acquire(url, token).release(new RequestCancelledException("b"));
+
+        admission.acquire(url, token).release();
+    }
+
+    @Test
+    public void errors_of_requests_cancelled_mid_read_do_not_count_as_failures() throws Exception {
+        // Only failures open the circuit, so a cancelled request recorded at all would keep it closed
+        admission.configure(6, 100, 1, 60000);
+        URL url = new URL("https://cdn.example.com/");
+        CancellationToken cancelled = new CancellationToken("a");
+        HostAdmission.Permit permit = admission.acquire(url, cancelled);
+        cancelled.cancel();
+        IOException error = HttpRequestHandler.failed(new SocketException("Socket closed"), cancelled, url, System.nanoTime(), null, permit);
+
+        assertTrue(error instanceof RequestCancelledException);
+        HttpRequestHandler.failed(new SocketException("reset"), token, url, System.nanoTime(), null, admission.acquire(url, token));
+        assertUnavailable(url);
+    }
+
+    @Test
+    public void retry_after_of_a_429_fails_requests_fast() throws Exception {
+        admission.configure(6, 50, 10, 1000);
+        URL url = new URL("https://api.example.com/");
+        admission.acquire(url, token).release(429, "120");
+
+        try {
+            admission.acquire(url, token);
+            fail();
+        } catch (HostUnavailableException e) {
+            assertTrue(e.getRetryAfter() > 119_000);
+            assertEquals("120", e.getRetryAfterHeader());
+        }
+    }
+
+    private void assertUnavailable(URL url) throws RequestCancelledException {
+        try {
+            admission.acquire(url, token);
+            fail();
+        } catch (HostUnavailableException e) {
+            // expected
+        }
+    }
+}
@@ -43,6 +43,20 @@ public class HttpRequestHandlerTest {
         assertEquals(jsonObject.toString(), result.toString());
     }
 
+    @Test
+    public void readData_success_with_raw_JSON() throws IOException, JSONException {
+        String json = "[{\"message\":\"Hello world!\"},\n {\"emoji\":\"\u00e9\ud83d\ude00\"}]";
+        CapacitorHttpUrlResponseMock connection = new CapacitorHttpUrlResponseMock(
+            new ByteArrayInputStream(json.getBytes(UTF_8)),
+            null,
+            MimeType.APPLICATION_JSON.getValue()
+        );
+
+        Object result = HttpResponseBuilder.readData(connection, JSON, true, null, RequestTimings.DISABLED);
+
+        assertEquals(json, result);
+    }
+
     @SuppressWarnings("SameParameterValue")
     private static CapacitorHttpUrlResponseMock errorWithHtmlMessage(String htmlErrorMessage) {
         return new CapacitorHttpUrlResponseMock(
@@ -0,0 +1,91 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.json.JSONException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ImageCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void getKey_depends_on_options() throws IOException, JSONException {
+        File source = folder.newFile("photo.jpg");
+
+        String thumbnail = ImageCache.getKey(source, new JSObject("{ 'maxWidth': 200 }"));
+        String full = ImageCache.getKey(source, new JSObject("{ 'maxWidth': 2000 }"));
+
+        assertNotEquals(thumbnail, full);
+        assertEquals(thumbnail, ImageCache.getKey(source, new JSObject("{ 'maxWidth': 200, 'format': 'jpeg' }")));
+    }
+
+    @Test
+    public void released_entries_are_reused() throws IOException {
+        ImageCache cache = new ImageCache(folder.newFolder("cache"));
+
+        File file = cache.put("a", write(cache, "a", 10));
+        cache.release(file);
+
+        assertEquals(file, cache.get("a"));
+    }
+
+    @Test
+    public void removed_entries_are_deleted() throws IOException {
+        ImageCache cache = new ImageCache(folder.newFolder("cache"));
+
+        File file = cache.put("a", write(cache, "a", 10));
+        cache.remove(file);
+
+        assertFalse(file.exists());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void evicts_least_recently_used_unpinned_entries() throws IOException {
+        ImageCache cache = new ImageCache(folder.newFolder("cache"));
+        cache.setMaxSize(25);
+
+        File a = cache.put("a", write(cache, "a", 10));
+        File b = cache.put("b", write(cache, "b", 10));
+        cache.release(a);
+        cache.release(b);
+        cache.release(cache.get("a"));
+
+        // Pinned entries are kept even when over budget
+        File c = cache.put("c", write(cache, "c", 10));
+
+        assertTrue(a.exists());
+        assertFalse(b.exists());
+        assertTrue(c.exists());
+    }
+
+    @Test
+    public void files_outside_the_cache_are_never_deleted() throws IOException {
+        ImageCache cache = new ImageCache(folder.newFolder("cache"));
+        File original = folder.newFile("original.jpg");
+
+        cache.remove(original);
+
+        assertTrue(original.exists());
+    }
+
+    private static File write(ImageCache cache, String key, int size) throws IOException {
+        File partial = cache.createFile(key, "jpg");
+        try (FileOutputStream out = new FileOutputStream(partial)) {
+            out.write(new byte[size]);
+        }
+        return partial;
+    }
+}
@@ -0,0 +1,81 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class ImageUtilsTest {
+
+    private static final int[] SOI = { 0xFF, 0xD8 };
+    private static final int[] APP0_JFIF = { 0xFF, 0xE0, 0x00, 0x07, 'J', 'F', 'I', 'F', 0x00 };
+    private static final int[] APP1_EXIF = { 0xFF, 0xE1, 0x00, 0x08, 'E', 'x', 'i', 'f', 0x00, 0x00 };
+    private static final int[] APP2_ICC = { 0xFF, 0xE2, 0x00, 0x0E, 'I', 'C', 'C', '_', 'P', 'R', 'O', 'F', 'I', 'L', 'E', 0x00 };
+    private static final int[] COM = { 0xFF, 0xFE, 0x00, 0x05, 'h', 'i', '!' };
+    private static final int[] DQT = { 0xFF, 0xDB, 0x00, 0x04, 0x01, 0x02 };
+    private static final int[] SOS_AND_DATA = { 0xFF, 0xDA, 0x00, 0x03, 0x01, 0x12, 0x34, 0xFF, 0x00, 0x56, 0xFF, 0xD9 };
+    private static final int[] ORIENTATION_6 = {
+        0xFF, 0xE1, 0x00, 0x22, 'E', 'x', 'i', 'f', 0x00, 0x00,
+        'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08,
+        0x00, 0x01,
+        0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, 0x06, 0x00, 0x00,
+        0x00, 0x00, 0x00, 0x00
+    };
+
+    @Test
+    public void copyJpegWithoutMetadata_drops_exif_and_comments() throws IOException {
+        byte[] result = strip(jpeg(SOI, APP0_JFIF, APP1_EXIF, APP2_ICC, COM, DQT, SOS_AND_DATA), 1);
+
+        assertArrayEquals(jpeg(SOI, APP0_JFIF, APP2_ICC, DQT, SOS_AND_DATA), result);
+    }
+
+    @Test
+    public void copyJpegWithoutMetadata_rewrites_orientation_after_jfif() throws IOException {
+        byte[] result = strip(jpeg(SOI, APP0_JFIF, APP1_EXIF, DQT, SOS_AND_DATA), 6);
+
+        assertArrayEquals(jpeg(SOI, APP0_JFIF, ORIENTATION_6, DQT, SOS_AND_DATA), result);
+    }
+
+    @Test
+    public void copyJpegWithoutMetadata_rejects_non_jpeg() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(new byte[] { (byte) 0x89, 'P', 'N', 'G' }));
+
+        assertFalse(ImageUtils.copyJpegWithoutMetadata(in, out, 1));
+    }
+
+    @Test
+    public void ImageFormat_parse_rejects_unsupported_formats() {
+        assertEquals(ImageFormat.JPEG, ImageFormat.parse("JPEG"));
+        assertEquals(ImageFormat.WEBP_LOSSLESS, ImageFormat.parse("webp-lossless"));
+        try {
+            ImageFormat.parse("gif");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unsupported image format: gif", e.getMessage());
+        }
+    }
+
+    private static byte[] strip(byte[] input, int orientation) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageUtils.copyJpegWithoutMetadata(new DataInputStream(new ByteArrayInputStream(input)), out, orientation));
+        return out.toByteArray();
+    }
+
+    private static byte[] jpeg(int[]... segments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int[] segment : segments) {
+            for (int b : segment) {
+                out.write(b);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,253 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+public class InterceptorChainTest {
+
+    private final List<HttpInterceptor> added = new ArrayList<>();
+    private final List<String> sent = new ArrayList<>();
+    private final CancellationToken token = new CancellationToken("test");
+
+    @After
+    public void tearDown() {
+        for (HttpInterceptor interceptor : added) {
+            InterceptorChain.remove(interceptor);
+        }
+    }
+
+    @Test
+    public void interceptors_run_in_order_and_add_headers() throws Exception {
+        add(chain -> {
+            chain.headers().put("X-First", "1");
+            return chain.proceed();
+        });
+        add(chain -> {
+            chain.headers().put("X-Second", chain.method());
+            return chain.proceed();
+        });
+
+        JSObject response = InterceptorChain.execute(new URL("https://example.com/"), "GET", token, this::exchange);
+
+        assertEquals(200, (int) response.getInteger("status"));
+        assertEquals("{\"X-First\":\"1\",\"X-Second\":\"GET\"}", sent.get(0));
+    }
+
+    @Test
+    public void proceed_again_sends_the_request_again_without_later_headers() throws Exception {
+        add(chain -> {
+            chain.headers().put("Attempt", "1");
+            chain.proceed();
+            chain.headers().put("Attempt", "2");
+            return chain.proceed();
+        });
+        add(chain -> {
+            if (chain.headers().has("Added")) {
+                throw new AssertionError("headers leaked from the previous attempt");
+            }
+            chain.headers().put("Added", true);
+            return chain.proceed();
+        });
+
+        InterceptorChain.execute(new URL("https://example.com/"), "POST", token, this::exchange);
+
+        assertEquals(2, sent.size());
+        assertEquals("{\"Attempt\":\"2\",\"Added\":true}", sent.get(1));
+    }
+
+    @Test
+    public void readToken_follows_a_dotted_path() throws Exception {
+        JSONObject data = new JSONObject("{\"data\":{\"accessToken\":\"abc\"},\"empty\":\"\"}");
+
+        assertEquals("abc", AuthInterceptor.readToken(data, "data.accessToken"));
+        assertEquals("abc", AuthInterceptor.readToken(data.toString(), "data.accessToken"));
+        assertNull(AuthInterceptor.readToken(data, "data.missing"));
+        assertNull(AuthInterceptor.readToken(data, "empty"));
+        assertNull(AuthInterceptor.readToken("not json", "access_token"));
+    }
+
+    @Test
+    public void isUnder_requires_the_same_origin_and_a_path_below_the_prefix() throws Exception {
+        URL prefix = new URL("https://api.example.com/v1");
+
+        assertTrue(AuthInterceptor.isUnder(new URL("https://api.example.com/v1"), prefix));
+        assertTrue(AuthInterceptor.isUnder(new URL("https://API.example.com:443/v1/users?page=2"), prefix));
+        assertFalse(AuthInterceptor.isUnder(new URL("https://api.example.com/v10"), prefix));
+        assertFalse(AuthInterceptor.isUnder(new URL("https://api.example.com.evil.net/v1"), prefix));
+        assertFalse(AuthInterceptor.isUnder(new URL("https://api.example.com:8443/v1"), prefix));
+        assertFalse(AuthInterceptor.isUnder(new URL("http://api.example.com/v1"), prefix));
+        assertTrue(AuthInterceptor.isUnder(new URL("https://api.example.com/any"), new URL("https://api.example.com")));
+        assertFalse(AuthInterceptor.isUnder(new URL("https://api.example.com@evil.net/"), new URL("https://api.example.com")));
+    }
+
+    @Test
+    public void concurrent_401s_refresh_once_and_every_request_retries_with_the_new_token() throws Exception {
+        int requests = 5;
+        AtomicInteger refreshes = new AtomicInteger();
+        List<JSObject> events = new CopyOnWriteArrayList<>();
+        AuthInterceptor auth = new AuthInterceptor((options, callToken) -> {
+            refreshes.incrementAndGet();
+            callToken.sleep(100);
+            return new JSObject().put("status", 200).put("data", new JSObject().put("access_token", "new"));
+        });
+        auth.configure(authOptions(), events::add);
+        // Every request is rejected before any refresh completes
+        CountDownLatch rejected = new CountDownLatch(requests);
+        List<String> retried = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<Future<JSObject>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(executor.submit(() -> auth.intercept(new FakeChain(token, headers -> {
+                if (headers.getString("Authorization").equals("Bearer old")) {
+                    rejected.countDown();
+                    await(rejected);
+                    return new JSObject().put("status", 401);
+                }
+                retried.add(headers.getString("Authorization"));
+                return new JSObject().put("status", 200);
+            }))));
+        }
+
+        for (Future<JSObject> response : responses) {
+            assertEquals(200, (int) response.get(5, TimeUnit.SECONDS).getInteger("status"));
+        }
+        executor.shutdown();
+
+        assertEquals(1, refreshes.get());
+        assertEquals(requests, retried.size());
+        for (String header : retried) {
+            assertEquals("Bearer new", header);
+        }
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void a_request_waiting_for_a_refresh_gives_up_when_cancelled() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuthInterceptor auth = new AuthInterceptor((options, callToken) -> {
+            refreshing.countDown();
+            await(release);
+            return new JSObject().put("status", 200).put("data", new JSObject().put("access_token", "new"));
+        });
+        auth.configure(authOptions(), event -> {});
+        Exchange unauthorized = headers -> new JSObject().put("status", headers.getString("Authorization").equals("Bearer new") ? 200 : 401);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<JSObject> leader = executor.submit(() -> auth.intercept(new FakeChain(token, unauthorized)));
+        assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+
+        CancellationToken waiting = new CancellationToken("waiting");
+        Future<JSObject> follower = executor.submit(() -> auth.intercept(new FakeChain(waiting, unauthorized)));
+        Thread.sleep(100);
+        waiting.cancel();
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestCancelledException);
+        }
+
+        release.countDown();
+        assertEquals(200, (int) leader.get(5, TimeUnit.SECONDS).getInteger("status"));
+        executor.shutdown();
+    }
+
+    private static JSObject authOptions() throws JSONException {
+        return new JSObject()
+            .put("urls", new JSONArray().put("https://api.example.com/"))
+            .put("token", "old")
+            .put("refresh", new JSObject().put("url", "https://auth.example.com/token"));
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedIOException {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void add(HttpInterceptor interceptor) {
+        added.add(interceptor);
+        InterceptorChain.add(interceptor);
+    }
+
+    private JSObject exchange(JSObject headers) {
+        sent.add(headers.toString());
+        return new JSObject().put("status", 200);
+    }
+
+    /**
+     * The innermost chain of a request, as the auth interceptor sees it
+     */
+    private static class FakeChain implements HttpInterceptor.Chain {
+
+        private final CancellationToken token;
+        private final Exchange exchange;
+        private final JSObject headers = new JSObject();
+
+        FakeChain(CancellationToken token, Exchange exchange) {
+            this.token = token;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public URL url() {
+            try {
+                return new URL("https://api.example.com/me");
+            } catch (MalformedURLException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public String method() {
+            return "GET";
+        }
+
+        @Override
+        public JSObject headers() {
+            return headers;
+        }
+
+        @Override
+        public CancellationToken token() {
+            return token;
+        }
+
+        @Override
+        public JSObject proceed() throws IOException, URISyntaxException, JSONException {
+            return exchange.send(headers);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Exchange {
+        JSObject send(JSObject headers) throws IOException, URISyntaxException, JSONException;
+    }
+}
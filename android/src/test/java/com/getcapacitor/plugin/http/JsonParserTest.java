@@ -0,0 +1,112 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonParserTest {
+
+    @Test
+    public void parse_object_keeps_org_json_types() throws IOException, JSONException {
+        JSObject result = (JSObject) parse("{\"int\":1,\"long\":4294967296,\"double\":1.5,\"flag\":true,\"none\":null,\"nested\":{\"list\":[1,\"a\"]}}");
+
+        assertEquals(1, result.get("int"));
+        assertEquals(4294967296L, result.get("long"));
+        assertEquals(1.5, result.get("double"));
+        assertEquals(true, result.get("flag"));
+        assertSame(JSONObject.NULL, result.get("none"));
+        JSONArray list = result.getJSONObject("nested").getJSONArray("list");
+        assertEquals(2, list.length());
+        assertEquals("a", list.get(1));
+    }
+
+    @Test
+    public void parse_array_at_the_root() throws IOException, JSONException {
+        JSArray result = (JSArray) parse("  [{\"id\":1},{\"id\":2}]");
+
+        assertEquals(2, result.length());
+        assertEquals(2, result.getJSONObject(1).getInt("id"));
+    }
+
+    @Test
+    public void parse_bare_null_and_booleans() throws IOException, JSONException {
+        assertSame(JSONObject.NULL, parse(" null "));
+        assertEquals("true", ((JSONObject) parse("true")).getString("flag"));
+        assertEquals("false", ((JSONObject) parse("false")).getString("flag"));
+    }
+
+    @Test
+    public void parse_malformed_or_empty_throws_JSONException() throws IOException {
+        for (String input : new String[] { "{\"a\":", "[1,2", "", "42" }) {
+            try {
+                parse(input);
+                throw new AssertionError("Expected a JSONException for " + input);
+            } catch (JSONException expected) {
+                // Malformed input is reported as JSON, not as a failure to read the response
+            }
+        }
+    }
+
+    @Test
+    public void parse_trailing_data_throws_JSONException() throws IOException, JSONException {
+        for (String input : new String[] { "{}garbage", "{\"a\":1}{\"b\":2}", "[1] [2]", "null 1" }) {
+            try {
+                parse(input);
+                throw new AssertionError("Expected a JSONException for " + input);
+            } catch (JSONException expected) {
+                // A body is one JSON value, whatever follows it makes the body malformed
+            }
+        }
+        assertEquals(1, ((JSObject) parse("{\"a\":1} \n")).getInt("a"));
+    }
+
+    @Test
+    public void parse_with_select_keeps_only_selected_paths() throws IOException, JSONException {
+        JsonProjection select = JsonProjection.fromOption(new JSONArray().put("items[*].id").put("$.meta").put("items[1].tags[0]"));
+
+        JSObject result = (JSObject) parse(
+            "{\"items\":[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"tags\":[\"x\",\"y\"]}],\"meta\":{\"total\":2},\"debug\":[1,2,3]}",
+            select
+        );
+
+        assertEquals("{\"items\":[{\"id\":1},{\"id\":2,\"tags\":[\"x\"]}],\"meta\":{\"total\":2}}", result.toString());
+    }
+
+    @Test
+    public void parse_with_select_keeps_array_positions_for_values_of_the_wrong_shape() throws IOException, JSONException {
+        JsonProjection select = JsonProjection.fromOption("[*].user.name");
+
+        JSArray result = (JSArray) parse("[{\"user\":{\"name\":\"a\"}},{\"user\":\"b\"},3]", select);
+
+        assertEquals("[{\"user\":{\"name\":\"a\"}},{},null]", result.toString());
+    }
+
+    @Test
+    public void parse_with_select_keeps_the_index_of_selected_elements() throws IOException, JSONException {
+        JSArray result = (JSArray) parse("[\"a\",\"b\",\"c\",\"d\"]", JsonProjection.fromOption("[2]"));
+
+        assertEquals("[null,null,\"c\"]", result.toString());
+    }
+
+    @Test(expected = JSONException.class)
+    public void select_with_malformed_path_throws_JSONException() throws JSONException {
+        JsonProjection.fromOption("items[*.id");
+    }
+
+    private static Object parse(String input, JsonProjection select) throws IOException, JSONException {
+        return JsonParser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), select);
+    }
+
+    private static Object parse(String input) throws IOException, JSONException {
+        return JsonParser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getPercentile_returns_upper_bound_of_bucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(15);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(700);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(20, histogram.getPercentile(0.5));
+        assertEquals(20, histogram.getPercentile(0.9));
+        assertEquals(700, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void getPercentile_never_exceeds_max() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+
+        assertEquals(3, histogram.getPercentile(0.5));
+    }
+
+    @Test
+    public void getPercentile_handles_durations_beyond_last_bucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(120000);
+
+        assertEquals(120000, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void getPercentile_of_empty_histogram_is_zero() {
+        assertEquals(0, new LatencyHistogram().getPercentile(0.5));
+    }
+}
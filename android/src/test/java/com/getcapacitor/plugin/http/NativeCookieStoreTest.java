@@ -0,0 +1,106 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NativeCookieStoreTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("http-cookies", null);
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void get_returns_the_cookies_of_the_host_and_its_parent_domains() {
+        NativeCookieStore store = new NativeCookieStore(file);
+        URI api = URI.create("https://api.example.com/");
+        store.add(api, cookie("host=1"));
+        store.add(api, cookie("parent=1; Domain=.Example.com"));
+        store.add(URI.create("https://other.com/"), cookie("other=1"));
+
+        assertEquals(list("host", "parent"), names(store.get(api)));
+        assertEquals(list("parent"), names(store.get(URI.create("https://www.example.com/"))));
+    }
+
+    @Test
+    public void host_only_cookies_are_not_sent_to_subdomains_even_after_a_reload() {
+        NativeCookieStore store = new NativeCookieStore(file);
+        URI host = URI.create("https://example.com/");
+        store.add(host, cookie("hostOnly=1; Max-Age=3600"));
+        store.add(host, cookie("domain=1; Domain=example.com; Max-Age=3600"));
+        store.save();
+
+        for (NativeCookieStore loaded : new NativeCookieStore[] { store, new NativeCookieStore(file) }) {
+            assertEquals(list("hostOnly", "domain"), names(loaded.get(host)));
+            assertEquals(list("domain"), names(loaded.get(URI.create("https://api.example.com/"))));
+        }
+    }
+
+    @Test
+    public void add_with_an_expired_cookie_removes_the_cookie_it_replaces() {
+        NativeCookieStore store = new NativeCookieStore(file);
+        URI uri = URI.create("https://example.com/");
+        store.add(uri, cookie("a=1; Path=/"));
+        store.add(uri, cookie("b=1; Path=/"));
+        store.add(uri, cookie("a=; Path=/; Expires=Wed, 31 Dec 2000 23:59:59 GMT"));
+
+        assertEquals(list("b"), names(store.get(uri)));
+    }
+
+    @Test
+    public void save_persists_only_unexpired_persistent_cookies() {
+        NativeCookieStore store = new NativeCookieStore(file);
+        URI uri = URI.create("https://example.com/app");
+        store.add(uri, cookie("session=1; Path=/"));
+        store.add(uri, cookie("kept=2; Path=/app; Max-Age=3600; Secure; HttpOnly"));
+        store.save();
+
+        List<HttpCookie> loaded = new NativeCookieStore(file).get(uri);
+        assertEquals(1, loaded.size());
+        HttpCookie kept = loaded.get(0);
+        assertEquals("kept", kept.getName());
+        assertEquals("2", kept.getValue());
+        assertEquals("example.com", kept.getDomain());
+        assertEquals("/app", kept.getPath());
+        assertTrue(kept.getSecure());
+        assertTrue(kept.isHttpOnly());
+    }
+
+    private static HttpCookie cookie(String header) {
+        return HttpCookie.parse(header).get(0);
+    }
+
+    private static List<String> list(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names) {
+            list.add(name);
+        }
+        return list;
+    }
+
+    private static List<String> names(List<HttpCookie> cookies) {
+        List<String> names = new ArrayList<>();
+        for (HttpCookie cookie : cookies) {
+            names.add(cookie.getName());
+        }
+        return names;
+    }
+}
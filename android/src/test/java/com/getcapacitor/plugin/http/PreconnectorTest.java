@@ -0,0 +1,20 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import org.junit.Test;
+
+public class PreconnectorTest {
+
+    @Test
+    public void originOf_keeps_only_the_scheme_host_and_port() throws IOException {
+        assertEquals("https://api.example.com/", Preconnector.originOf("https://api.example.com/v1/items?page=2").toString());
+        assertEquals("http://localhost:8080/", Preconnector.originOf("http://user@localhost:8080/path#top").toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void originOf_rejects_other_schemes() throws IOException {
+        Preconnector.originOf("ftp://example.com/file");
+    }
+}
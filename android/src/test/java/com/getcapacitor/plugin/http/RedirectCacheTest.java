@@ -0,0 +1,77 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import org.junit.Test;
+
+public class RedirectCacheTest {
+
+    private final RedirectCache cache = new RedirectCache();
+
+    @Test
+    public void permanent_redirects_are_followed_to_the_end_for_the_methods_they_apply_to() throws Exception {
+        cache.put(new URL("https://example.com/a"), new URL("https://example.com/b"), 301);
+        cache.put(new URL("https://example.com/b"), new URL("https://example.com:443/c"), 308);
+
+        assertEquals("https://example.com:443/c", cache.get(new URL("https://example.com/a"), "GET").toString());
+        assertNull(cache.get(new URL("https://example.com/a"), "POST"));
+        assertEquals("https://example.com:443/c", cache.get(new URL("https://example.com/b"), "PUT").toString());
+    }
+
+    @Test
+    public void redirects_to_another_origin_are_not_remembered() throws Exception {
+        // Sent straight there, the request would carry the credentials of the original host
+        cache.put(new URL("https://example.com/a"), new URL("https://cdn.example.net/a"), 301);
+        cache.put(new URL("https://example.com/b"), new URL("https://example.com:8443/b"), 308);
+        cache.put(new URL("http://example.com/c"), new URL("https://example.com/c"), 301);
+
+        assertNull(cache.get(new URL("https://example.com/a"), "GET"));
+        assertNull(cache.get(new URL("https://example.com/b"), "GET"));
+        assertNull(cache.get(new URL("http://example.com/c"), "GET"));
+    }
+
+    @Test
+    public void invalidate_forgets_the_redirects_a_url_went_through() throws Exception {
+        cache.put(new URL("https://example.com/a"), new URL("https://example.com/b"), 301);
+        cache.put(new URL("https://example.com/b"), new URL("https://example.com/c"), 301);
+        cache.put(new URL("https://example.com/x"), new URL("https://example.com/y"), 301);
+
+        cache.invalidate(new URL("https://example.com/a"));
+
+        assertNull(cache.get(new URL("https://example.com/a"), "GET"));
+        assertNull(cache.get(new URL("https://example.com/b"), "GET"));
+        assertEquals("https://example.com/y", cache.get(new URL("https://example.com/x"), "GET").toString());
+    }
+
+    @Test
+    public void least_recently_used_redirects_are_evicted_and_the_rest_persisted() throws Exception {
+        File file = File.createTempFile("redirects", null);
+        file.delete();
+        cache.configure(2, file);
+        cache.put(new URL("https://example.com/1"), new URL("https://example.com/one"), 301);
+        cache.put(new URL("https://example.com/2"), new URL("https://example.com/two"), 301);
+        cache.get(new URL("https://example.com/1"), "GET");
+        cache.put(new URL("https://example.com/3"), new URL("https://example.com/three"), 308);
+        cache.save();
+
+        RedirectCache reloaded = new RedirectCache();
+        reloaded.configure(2, file);
+        assertEquals("https://example.com/one", reloaded.get(new URL("https://example.com/1"), "GET").toString());
+        assertNull(reloaded.get(new URL("https://example.com/2"), "GET"));
+        assertEquals("https://example.com/three", reloaded.get(new URL("https://example.com/3"), "POST").toString());
+        file.delete();
+    }
+
+    @Test
+    public void isCacheable_honors_cache_control() {
+        assertTrue(RedirectCache.isCacheable(null));
+        assertTrue(RedirectCache.isCacheable("max-age=3600"));
+        assertFalse(RedirectCache.isCacheable("no-store"));
+        assertFalse(RedirectCache.isCacheable("private, max-age=0"));
+    }
+}
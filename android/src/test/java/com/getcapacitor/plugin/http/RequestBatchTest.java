@@ -0,0 +1,168 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class RequestBatchTest {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final JSObject[] summary = new JSObject[1];
+    private final List<JSObject> emitted = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void runs_at_most_concurrency_requests_at_once_and_returns_results_in_order() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        RequestBatch batch = new RequestBatch(
+            (options, token, timings) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return new JSObject().put("url", options.getString("url"));
+            },
+            this::complete,
+            "batch",
+            requests(6),
+            false,
+            emitted::add
+        );
+
+        batch.start(2);
+
+        JSObject result = await();
+        assertEquals(2, maxInFlight.get());
+        assertEquals(6, (int) result.getInteger("succeeded"));
+        JSONArray results = result.getJSONArray("results");
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, results.getJSONObject(i).getInt("index"));
+            assertEquals("https://example.com/" + i, results.getJSONObject(i).getJSONObject("response").getString("url"));
+        }
+        assertTrue(emitted.isEmpty());
+    }
+
+    @Test
+    public void failed_requests_are_reported_in_their_result_and_streamed() throws Exception {
+        RequestBatch batch = new RequestBatch(
+            (options, token, timings) -> {
+                if (options.getString("url").endsWith("/1")) {
+                    throw new RequestCancelledException("1");
+                }
+                return new JSObject().put("status", 200);
+            },
+            this::complete,
+            "batch",
+            requests(3),
+            true,
+            emitted::add
+        );
+
+        batch.start(5);
+
+        JSObject result = await();
+        assertEquals(2, (int) result.getInteger("succeeded"));
+        assertEquals(1, (int) result.getInteger("failed"));
+        assertFalse(result.has("results"));
+        assertEquals(3, emitted.size());
+        for (JSObject event : emitted) {
+            assertEquals("batch", event.getString("batchId"));
+            if (event.getInteger("index") == 1) {
+                assertFalse(event.getBool("success"));
+                assertEquals(RequestCancelledException.CODE, event.getString("code"));
+            } else {
+                assertTrue(event.getBool("success"));
+            }
+        }
+    }
+
+    @Test
+    public void failures_get_the_same_codes_as_single_requests() throws Exception {
+        RequestBatch batch = new RequestBatch(
+            (options, token, timings) -> {
+                String url = options.getString("url");
+                if (url.endsWith("/0")) {
+                    throw new HostUnavailableException("example.com", "too many requests failed", 1000);
+                } else if (url.endsWith("/1")) {
+                    throw new DeadlineExceededException("1", 100);
+                }
+                throw new IOException("reset");
+            },
+            this::complete,
+            "batch",
+            requests(3),
+            true,
+            emitted::add
+        );
+
+        batch.start(1);
+
+        await();
+        String[] codes = new String[3];
+        for (JSObject event : emitted) {
+            codes[event.getInteger("index")] = event.getString("code");
+        }
+        assertEquals(HostUnavailableException.CODE, codes[0]);
+        assertEquals(DeadlineExceededException.CODE, codes[1]);
+        assertEquals("IOException", codes[2]);
+    }
+
+    @Test
+    public void an_empty_batch_completes_at_once() throws Exception {
+        new RequestBatch((options, token, timings) -> new JSObject(), this::complete, "batch", new ArrayList<>(), false, emitted::add).start(4);
+
+        assertEquals(0, (int) await().getInteger("total"));
+    }
+
+    @Test
+    public void getBatchEntries_applies_top_level_options_unless_overridden() throws JSONException {
+        JSArray requests = new JSArray();
+        requests.put(new JSObject().put("url", "https://example.com/a"));
+        requests.put(new JSObject().put("url", "https://example.com/b").put("readTimeout", 5));
+        JSObject options = new JSObject().put("requests", requests).put("readTimeout", 30).put("concurrency", 2).put("batchId", "b");
+
+        List<JSObject> entries = HttpRequestHandler.getBatchEntries(options, "requests", "batchId", "concurrency");
+
+        assertEquals(30, (int) entries.get(0).getInteger("readTimeout"));
+        assertEquals(5, (int) entries.get(1).getInteger("readTimeout"));
+        assertEquals("https://example.com/b", entries.get(1).getString("url"));
+        assertFalse(entries.get(0).has("requests"));
+        assertFalse(entries.get(0).has("concurrency"));
+        assertFalse(entries.get(0).has("batchId"));
+    }
+
+    private void complete(JSObject result) {
+        summary[0] = result;
+        done.countDown();
+    }
+
+    private JSObject await() throws InterruptedException {
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return summary[0];
+    }
+
+    private static List<JSObject> requests(int count) {
+        List<JSObject> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new JSObject().put("url", "https://example.com/" + i));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,45 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RequestRegistryTest {
+
+    @Test
+    public void cancel_marks_registered_request_cancelled() {
+        CancellationToken token = RequestRegistry.register("cancel-registered");
+
+        assertTrue(RequestRegistry.cancel("cancel-registered"));
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void cancel_returns_false_for_unknown_or_finished_request() {
+        CancellationToken token = RequestRegistry.register("cancel-finished");
+        RequestRegistry.unregister(token);
+
+        assertFalse(RequestRegistry.cancel("cancel-unknown"));
+        assertFalse(RequestRegistry.cancel("cancel-finished"));
+        assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void unregister_keeps_newer_request_with_same_id() {
+        CancellationToken first = RequestRegistry.register("cancel-reused");
+        CancellationToken second = RequestRegistry.register("cancel-reused");
+        RequestRegistry.unregister(first);
+
+        assertTrue(RequestRegistry.cancel("cancel-reused"));
+        assertTrue(second.isCancelled());
+    }
+
+    @Test(expected = RequestCancelledException.class)
+    public void throwIfCancelled_throws_once_cancelled() throws RequestCancelledException {
+        CancellationToken token = new CancellationToken(null);
+        token.throwIfCancelled();
+        token.cancel();
+        token.throwIfCancelled();
+    }
+}
@@ -0,0 +1,55 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class RequestTimingsTest {
+
+    @Test
+    public void fromOptions_is_disabled_unless_requested() {
+        JSObject response = new JSObject();
+        RequestTimings.fromOptions(new JSObject()).addTo(response);
+
+        assertFalse(RequestTimings.fromOptions(new JSObject()).isEnabled());
+        assertFalse(response.has("timings"));
+    }
+
+    @Test
+    public void addTo_reports_every_phase() throws JSONException {
+        RequestTimings timings = RequestTimings.fromOptions(new JSObject().put("timings", true));
+        timings.markStarted();
+        timings.markConnected();
+        timings.markFirstByte();
+        timings.markBodyRead();
+        timings.markParsed();
+
+        JSObject response = new JSObject();
+        response.put("status", 200);
+        timings.addTo(response);
+
+        JSObject result = response.getJSObject("timings");
+        for (String phase : new String[] { "queueWait", "connect", "timeToFirstByte", "bodyRead", "parse", "serialize", "total" }) {
+            assertTrue(phase, result.getDouble(phase) >= 0);
+        }
+        assertEquals("{\"status\":200}".length(), result.getInt("bridgeSize"));
+    }
+
+    @Test
+    public void addTo_treats_skipped_phases_as_instant() throws JSONException {
+        RequestTimings timings = RequestTimings.fromOptions(new JSObject().put("timings", true));
+        timings.markStarted();
+        timings.markParsed();
+
+        JSObject response = new JSObject();
+        timings.addTo(response);
+
+        JSObject result = response.getJSObject("timings");
+        assertEquals(0, result.getDouble("connect"), 0);
+        assertEquals(0, result.getDouble("bodyRead"), 0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import javax.net.ssl.SSLHandshakeException;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void retries_transient_statuses_and_network_errors() throws JSONException {
+        RetryPolicy policy = RetryPolicy.fromOptions(new JSObject("{}"));
+
+        assertEquals(3, policy.getMaxAttempts());
+        assertTrue(policy.isRetryable(502));
+        assertTrue(policy.isRetryable(429));
+        assertFalse(policy.isRetryable(400));
+        assertTrue(policy.isRetryable(new SocketException("Connection reset")));
+        assertTrue(policy.isRetryable(new SocketTimeoutException()));
+        assertFalse(policy.isRetryable(new SSLHandshakeException("bad certificate")));
+        assertFalse(policy.isRetryable(new MalformedURLException()));
+    }
+
+    @Test
+    public void custom_statuses_replace_the_defaults() throws JSONException {
+        RetryPolicy policy = RetryPolicy.fromOptions(new JSObject("{ 'retryOnStatus': [409] }"));
+
+        assertTrue(policy.isRetryable(409));
+        assertFalse(policy.isRetryable(502));
+    }
+
+    @Test
+    public void no_options_never_retries() {
+        assertFalse(RetryPolicy.fromOptions(null).isEnabled());
+        assertFalse(RetryPolicy.NONE.isRetryable(new IOException()));
+    }
+
+    @Test
+    public void delay_grows_exponentially_up_to_max_delay() throws JSONException {
+        RetryPolicy policy = RetryPolicy.fromOptions(
+            new JSObject("{ 'initialDelay': 100, 'maxDelay': 1000, 'backoffMultiplier': 2, 'jitter': 0 }")
+        );
+
+        assertEquals(100, policy.getDelay(1, null));
+        assertEquals(200, policy.getDelay(2, null));
+        assertEquals(400, policy.getDelay(3, null));
+        assertEquals(1000, policy.getDelay(10, null));
+    }
+
+    @Test
+    public void jitter_only_shortens_the_delay() throws JSONException {
+        RetryPolicy policy = RetryPolicy.fromOptions(new JSObject("{ 'initialDelay': 1000, 'jitter': 0.5 }"));
+
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.getDelay(1, null);
+            assertTrue(delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void retry_after_extends_the_delay_within_max_delay() throws JSONException {
+        RetryPolicy policy = RetryPolicy.fromOptions(new JSObject("{ 'initialDelay': 100, 'maxDelay': 5000, 'jitter': 0 }"));
+
+        assertEquals(2000, policy.getDelay(1, "2"));
+        assertEquals(-1, policy.getDelay(1, "60"));
+        assertEquals(100, policy.getDelay(1, "not a date"));
+    }
+
+    @Test
+    public void parseRetryAfter_accepts_http_dates() {
+        assertEquals(0, RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(120 * 1000, RetryPolicy.parseRetryAfter(" 120 "));
+    }
+}
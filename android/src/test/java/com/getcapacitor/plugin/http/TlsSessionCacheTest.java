@@ -0,0 +1,107 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class TlsSessionCacheTest {
+
+    @Test
+    public void getSocketFactory_returns_one_factory_for_every_connection() {
+        SSLSocketFactory factory = TlsSessionCache.getInstance().getSocketFactory();
+
+        assertNotNull(factory);
+        assertSame(factory, TlsSessionCache.getInstance().getSocketFactory());
+    }
+
+    @Test
+    public void getSocketFactory_creates_sockets_from_the_factory_the_app_installed() throws Exception {
+        SSLSocketFactory platform = HttpsURLConnection.getDefaultSSLSocketFactory();
+        PinningSocketFactory pinning = new PinningSocketFactory();
+        HttpsURLConnection.setDefaultSSLSocketFactory(pinning);
+        try {
+            TlsSessionCache.getInstance().getSocketFactory().createSocket().close();
+
+            assertEquals(1, pinning.created);
+        } finally {
+            HttpsURLConnection.setDefaultSSLSocketFactory(platform);
+        }
+    }
+
+    @Test
+    public void handshakes_of_sessions_created_before_their_socket_count_as_resumed() throws JSONException {
+        TlsSessionCache cache = TlsSessionCache.getInstance();
+        cache.reset();
+
+        cache.recordHandshake(1000, 400);
+        cache.recordHandshake(1000, 1000);
+        cache.recordHandshake(1000, 1200);
+
+        assertEquals(2, cache.toJSObject().getLong("fullHandshakes"));
+        assertEquals(1, cache.toJSObject().getLong("resumedHandshakes"));
+    }
+
+    @Test
+    public void reset_clears_the_handshake_counters() throws JSONException {
+        TlsSessionCache.getInstance().reset();
+
+        assertEquals(0, TlsSessionCache.getInstance().toJSObject().getLong("fullHandshakes"));
+        assertEquals(0, TlsSessionCache.getInstance().toJSObject().getLong("resumedHandshakes"));
+    }
+
+    /**
+     * Stands in for a factory an app installs to pin certificates
+     */
+    private static class PinningSocketFactory extends SSLSocketFactory {
+
+        int created = 0;
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return new String[0];
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return new String[0];
+        }
+
+        @Override
+        public Socket createSocket() {
+            created++;
+            return new Socket();
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) {
+            return createSocket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) {
+            return createSocket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) {
+            return createSocket();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) {
+            return createSocket();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) {
+            return createSocket();
+        }
+    }
+}
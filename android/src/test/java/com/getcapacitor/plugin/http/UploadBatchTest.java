@@ -0,0 +1,55 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class UploadBatchTest {
+
+    private final List<JSObject> summaries = new ArrayList<>();
+    private final List<JSObject> emitted = new ArrayList<>();
+
+    @Test
+    public void emits_each_upload_and_resolves_once_all_finished() throws JSONException {
+        UploadBatch batch = new UploadBatch(summaries::add, "batch", 3, emitted::add);
+
+        batch.callbackFor(2, "c").onSuccess(new JSObject().put("status", 201));
+        batch.callbackFor(0, "a").onError("Could not find file", "FILE_NOT_FOUND", null);
+        assertTrue(summaries.isEmpty());
+        batch.callbackFor(1, "b").onSuccess(new JSObject().put("status", 500));
+
+        assertEquals(3, emitted.size());
+        JSObject first = emitted.get(0);
+        assertEquals("batch", first.getString("batchId"));
+        assertEquals("c", first.getString("id"));
+        assertTrue(first.getBool("success"));
+        assertEquals(201, (int) first.getJSObject("response").getInteger("status"));
+        assertEquals("FILE_NOT_FOUND", emitted.get(1).getString("code"));
+
+        assertEquals(1, summaries.size());
+        JSObject summary = summaries.get(0);
+        assertEquals(1, (int) summary.getInteger("succeeded"));
+        assertEquals(2, (int) summary.getInteger("failed"));
+        JSONArray results = summary.getJSONArray("results");
+        assertEquals("a", results.getJSONObject(0).getString("id"));
+        assertFalse(results.getJSONObject(1).getBoolean("success"));
+        assertEquals(500, results.getJSONObject(1).getInt("status"));
+        assertTrue(results.getJSONObject(2).getBoolean("success"));
+    }
+
+    @Test
+    public void an_empty_batch_resolves_at_once() throws JSONException {
+        new UploadBatch(summaries::add, "batch", 0, emitted::add);
+
+        assertEquals(1, summaries.size());
+        assertEquals(0, (int) summaries.get(0).getInteger("total"));
+        assertEquals(0, summaries.get(0).getJSONArray("results").length());
+    }
+}
@@ -0,0 +1,87 @@
+package com.getcapacitor.plugin.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class UploadTaskTest {
+
+    @Test
+    public void getVariants_names_variants_without_a_name_uniquely() throws JSONException {
+        JSObject options = new JSObject().put("name", "photo").put("variants", variants(new JSObject(), named("thumb"), new JSObject()));
+
+        List<JSObject> variants = HttpRequestHandler.getVariants(options);
+
+        assertEquals("photo_0", variants.get(0).getString("name"));
+        assertEquals("thumb", variants.get(1).getString("name"));
+        assertEquals("photo_2", variants.get(2).getString("name"));
+    }
+
+    @Test
+    public void getVariants_names_a_single_variant_after_the_upload() throws JSONException {
+        JSObject options = new JSObject().put("variants", variants(new JSObject(), named("thumb")));
+
+        assertEquals("file", HttpRequestHandler.getVariants(options).get(0).getString("name"));
+        assertNull(HttpRequestHandler.getVariants(new JSObject()));
+    }
+
+    @Test
+    public void getVariants_rejects_duplicate_names() {
+        try {
+            HttpRequestHandler.getVariants(new JSObject().put("variants", variants(named("file"), new JSObject())));
+            fail();
+        } catch (JSONException e) {
+            assertEquals("Duplicate variant name: file", e.getMessage());
+        }
+    }
+
+    @Test
+    public void createUploadTask_rejects_an_unsupported_format_up_front() {
+        JSObject options = new JSObject().put("url", "https://example.com/upload").put("resize", new JSObject().put("format", "bmp"));
+        try {
+            HttpRequestHandler.createUploadTask(options, new File("photo.jpg"), null, null);
+            fail();
+        } catch (JSONException e) {
+            assertEquals("Unsupported image format: bmp", e.getMessage());
+        }
+    }
+
+    @Test
+    public void getVariants_rejects_an_unsupported_format() {
+        try {
+            HttpRequestHandler.getVariants(new JSObject().put("variants", variants(named("thumb").put("format", "gif"))));
+            fail();
+        } catch (JSONException e) {
+            assertEquals("Unsupported image format: gif", e.getMessage());
+        }
+    }
+
+    @Test
+    public void pickResponse_reports_the_first_failed_variant() {
+        JSObject ok = new JSObject().put("status", 201);
+        JSObject failed = new JSObject().put("status", 500);
+
+        assertEquals(failed, UploadTask.pickResponse(Arrays.asList(ok, failed, new JSObject().put("status", 409))));
+        assertEquals(ok, UploadTask.pickResponse(Arrays.asList(ok, new JSObject().put("status", 200))));
+    }
+
+    private static JSObject named(String name) {
+        return new JSObject().put("name", name);
+    }
+
+    private static JSArray variants(JSObject... variants) {
+        JSArray array = new JSArray();
+        for (JSObject variant : variants) {
+            array.put(variant);
+        }
+        return array;
+    }
+}
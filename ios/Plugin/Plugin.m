@@ -9,10 +9,12 @@ CAP_PLUGIN(HttpPlugin, "Http",
   CAP_PLUGIN_METHOD(patch, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(del, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(setCookie, CAPPluginReturnPromise);
+  CAP_PLUGIN_METHOD(setCookies, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(getCookiesMap, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(getCookies, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(getCookie, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(deleteCookie, CAPPluginReturnPromise);
+  CAP_PLUGIN_METHOD(deleteCookies, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(clearCookies, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(clearAllCookies, CAPPluginReturnPromise);
   CAP_PLUGIN_METHOD(downloadFile, CAPPluginReturnPromise);
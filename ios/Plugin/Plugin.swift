@@ -120,6 +120,25 @@ import Foundation
         }
     }
     
+    @objc func setCookies(_ call: CAPPluginCall) {
+        guard let cookies = call.getArray("cookies", JSObject.self) else { return call.reject("Must provide cookies") }
+
+        let url = getServerUrl(call)
+        if url != nil {
+            var values: [(String, String)] = []
+            for cookie in cookies {
+                guard let key = cookie["key"] as? String, let value = cookie["value"] as? String else {
+                    return call.reject("Invalid cookies")
+                }
+                values.append((key, value))
+            }
+            for (key, value) in values {
+                cookieManager!.setCookie(url!, key, cookieManager!.encode(value))
+            }
+            call.resolve()
+        }
+    }
+
     @objc func getCookiesMap(_ call: CAPPluginCall) {
         let url = getServerUrl(call)
         if url != nil {
@@ -178,6 +197,17 @@ import Foundation
         }
     }
 
+    @objc func deleteCookies(_ call: CAPPluginCall) {
+        guard let keys = call.getArray("keys", String.self) else { return call.reject("Must provide keys") }
+        let url = getServerUrl(call)
+        if url != nil {
+            for key in keys {
+                cookieManager!.deleteCookie(url!, key)
+            }
+            call.resolve()
+        }
+    }
+
     @objc func clearCookies(_ call: CAPPluginCall) {
         let url = getServerUrl(call)
         if url != nil {
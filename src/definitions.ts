@@ -10,21 +10,79 @@ export interface HttpPlugin {
   put(options: HttpOptions): Promise<HttpResponse>;
   patch(options: HttpOptions): Promise<HttpResponse>;
   del(options: HttpOptions): Promise<HttpResponse>;
+  /**
+   * Sends several requests, `concurrency` at a time, and resolves once every one of them
+   * completed or failed. Not available on iOS.
+   */
+  batch(options: HttpBatchOptions): Promise<HttpBatchResult>;
+  /**
+   * Aborts the request, download, stream or batch entry started with the given `requestId`. Android only.
+   */
+  cancel(options: HttpCancelOptions): Promise<HttpCancelResult>;
+  /**
+   * Reads a streaming NDJSON or Server-Sent Events response, emitting its records as
+   * 'streamEvents' events while it arrives. Resolves once the server ends the stream or it is
+   * cancelled with `cancel()`. Android only.
+   */
+  stream(options: HttpStreamOptions): Promise<HttpStreamResult>;
+  /**
+   * Resolves the host names of the given URLs and opens a connection to each origin, TLS
+   * handshake included, so the first request to it reuses a warm connection. Resolves once
+   * every origin is warmed up or failed. Android only.
+   */
+  preconnect(options: HttpPreconnectOptions): Promise<HttpPreconnectResult>;
+  /**
+   * Sends an access token with every request and upload to the given URLs. When one gets a
+   * 401, the token is refreshed natively with the `refresh` request and the request sent again;
+   * concurrent 401s share a single refresh. Android only.
+   */
+  setAuth(options: HttpAuthOptions): Promise<void>;
+  /**
+   * Stops sending the token set with `setAuth()`. Android only.
+   */
+  clearAuth(): Promise<void>;
 
   setCookie(options: HttpSetCookieOptions): Promise<void>;
+  /**
+   * Sets several cookies at once, written to disk together
+   */
+  setCookies(options: HttpSetCookiesOptions): Promise<void>;
   getCookie(options: HttpSingleCookieOptions): Promise<HttpCookie>;
   getCookies(options: HttpMultiCookiesOptions): Promise<HttpGetCookiesResult>;
   getCookiesMap(options: HttpMultiCookiesOptions): Promise<HttpCookieMap>;
   clearCookies(options: HttpMultiCookiesOptions): Promise<void>;
   clearAllCookies(): Promise<void>;
   deleteCookie(options: HttpSingleCookieOptions): Promise<void>;
+  /**
+   * Deletes several cookies at once, written to disk together
+   */
+  deleteCookies(options: HttpDeleteCookiesOptions): Promise<void>;
 
   uploadFile(options: HttpUploadFileOptions): Promise<HttpUploadFileResult>;
-  uploadImage(options: HttpUploadImageOptions): Promise<HttpUploadFileResult>;
+  uploadImage(options: HttpUploadImageOptions): Promise<HttpUploadImageResult>;
+  /**
+   * Uploads several images like `uploadImage()`, emitting an 'uploadComplete' event as each one
+   * finishes. Resolves once every upload succeeded or failed. Android only.
+   */
+  uploadImages(options: HttpUploadImagesOptions): Promise<HttpUploadImagesResult>;
   chunkUpload(options: HttpUploadFileOptions): Promise<HttpUploadFileResult>;
   downloadFile(options: HttpDownloadFileOptions): Promise<HttpDownloadFileResult>;
 
+  /**
+   * Returns counters and latency percentiles aggregated since the app started or
+   * `resetMetrics()` was last called. Android only.
+   */
+  getMetrics(): Promise<HttpMetrics>;
+  /**
+   * Clears the counters and histograms returned by `getMetrics()`. Android only.
+   */
+  resetMetrics(): Promise<void>;
+
   addListener(eventName: 'progress', listenerFunc: HttpProgressListener): Promise<PluginListenerHandle>;
+  addListener(eventName: 'uploadComplete', listenerFunc: HttpUploadCompleteListener): Promise<PluginListenerHandle>;
+  addListener(eventName: 'batchResponse', listenerFunc: HttpBatchResponseListener): Promise<PluginListenerHandle>;
+  addListener(eventName: 'streamEvents', listenerFunc: HttpStreamEventsListener): Promise<PluginListenerHandle>;
+  addListener(eventName: 'tokenRefresh', listenerFunc: HttpTokenRefreshListener): Promise<PluginListenerHandle>;
 
   removeAllListeners(): Promise<void>;
 }
@@ -45,7 +103,8 @@ export interface HttpOptions {
    */
   connectTimeout?: number;
   /**
-   * Sets whether automatic HTTP redirects should be disabled
+   * Sets whether automatic HTTP redirects should be disabled. Disabling them also bypasses
+   * the permanent redirects remembered on Android.
    */
   disableRedirects?: boolean;
   /**
@@ -62,6 +121,275 @@ export interface HttpOptions {
    * (already encoded, azure/firebase testing, etc.). The default is _true_.
    */
   shouldEncodeUrlParams?: boolean;
+  /**
+   * An ID of your choice, used to abort the request with `cancel()`. A cancelled request
+   * rejects with the code 'CANCELLED'. Android only.
+   */
+  requestId?: string;
+  /**
+   * When true, the response includes a `timings` breakdown of where the request spent its
+   * time. Android only.
+   */
+  timings?: boolean;
+  /**
+   * When true, JSON response bodies are returned in `data` as their unparsed text, to read with
+   * `JSON.parse()`. This skips building the JSON natively only to serialize it again for the
+   * WebView, which speeds up large responses. Android only.
+   */
+  rawJson?: boolean;
+  /**
+   * Keeps only these paths of a JSON response body, dropping the rest natively before it is
+   * sent to the WebView. A path lists field names separated by dots, where `[*]` selects every
+   * element of an array, `[n]` a single element and `*` every field of an object, e.g.
+   * `['items[*].id', 'items[*].title', 'meta.total']`. Array elements keep their index, with
+   * `null` for an element that does not have the selected shape. Takes precedence over
+   * `rawJson`. Android only.
+   */
+  select?: string | string[];
+  /**
+   * Sends a GET, HEAD or OPTIONS request a second time when no response arrived after a
+   * delay, keeping whichever responds first. `true` derives the delay from the p95 latency of
+   * the host; an object sets it in milliseconds. Hedges are capped at `maxHedgeRate` percent of
+   * hedged requests, 10 by default. Android only.
+   */
+  hedge?: boolean | { delay?: number };
+  /**
+   * The total time, in milliseconds, the request may take across redirects, retries and
+   * reading the body, unlike the timeouts which apply to each connect or read. Once exceeded
+   * the connection is closed and the request rejects with the code 'DEADLINE_EXCEEDED'.
+   * Uploads count the time spent queued. Not applied to `stream()`. Android only.
+   */
+  deadline?: number;
+}
+
+export interface HttpCancelOptions {
+  requestId: string;
+}
+
+export interface HttpCancelResult {
+  /**
+   * False when no request with this ID was in progress
+   */
+  cancelled: boolean;
+}
+
+export interface HttpBatchOptions extends Partial<HttpOptions> {
+  /**
+   * The requests to execute. Options set at the top level apply to every request unless the
+   * entry overrides them; objects such as `headers` are replaced, not merged.
+   */
+  requests: HttpOptions[];
+  /**
+   * Maximum number of requests of the batch in flight at once. Defaults to 6
+   */
+  concurrency?: number;
+  /**
+   * When true, each result is emitted as a 'batchResponse' event as soon as its request
+   * completes, and the returned result only holds the counts
+   */
+  stream?: boolean;
+  /**
+   * Optionally, an ID for the batch, included in every 'batchResponse' event. Defaults to a random UUID
+   */
+  batchId?: string;
+}
+
+export interface HttpStreamOptions extends HttpOptions {
+  /**
+   * How the body is framed. Defaults to 'sse' for a `text/event-stream` response and 'ndjson'
+   * otherwise
+   */
+  format?: 'ndjson' | 'sse';
+  /**
+   * Most events emitted at once. Defaults to 50
+   */
+  batchSize?: number;
+  /**
+   * Longest time in milliseconds an event waits before its batch is emitted. Defaults to 100
+   */
+  batchInterval?: number;
+  /**
+   * Whether a Server-Sent Events stream reconnects when the connection drops, sending the
+   * `Last-Event-ID` it last received. Defaults to true
+   */
+  reconnect?: boolean;
+  /**
+   * Milliseconds to wait before reconnecting, until the server sets its own with `retry:`.
+   * Defaults to 3000
+   */
+  reconnectDelay?: number;
+  /**
+   * Reconnects in a row without receiving an event before the stream fails. Defaults to 10
+   */
+  maxReconnects?: number;
+  /**
+   * The `Last-Event-ID` sent with the first connection, to resume an earlier stream
+   */
+  lastEventId?: string;
+}
+
+export interface HttpServerSentEvent {
+  /**
+   * The `event:` field, 'message' when the event has none
+   */
+  type: string;
+  data: string;
+  id?: string;
+}
+
+export interface HttpStreamEvents {
+  requestId: string;
+  /**
+   * Parsed NDJSON records, or `HttpServerSentEvent` objects, in the order they arrived
+   */
+  events: any[];
+}
+
+export type HttpStreamEventsListener = (batch: HttpStreamEvents) => void;
+
+export interface HttpStreamResult {
+  /**
+   * The `requestId` of the options, or the one generated for the stream
+   */
+  requestId: string;
+  /**
+   * Number of events received
+   */
+  events: number;
+  reconnects: number;
+  lastEventId?: string;
+  /**
+   * True when the stream ended because it was cancelled
+   */
+  cancelled: boolean;
+}
+
+export interface HttpPreconnectOptions {
+  /**
+   * URLs of the origins to warm up. Only their scheme, host and port are used.
+   */
+  urls: string[];
+  /**
+   * Connect and read timeout of each origin, in milliseconds. Defaults to 10000
+   */
+  timeout?: number;
+}
+
+export interface HttpPreconnectOrigin {
+  origin: string;
+  success: boolean;
+  /**
+   * Time spent resolving the host name, in milliseconds
+   */
+  dnsTime?: number;
+  /**
+   * Time spent connecting, TLS handshake included, and waiting for the response, in milliseconds
+   */
+  connectTime?: number;
+  error?: string;
+}
+
+export interface HttpPreconnectResult {
+  origins: HttpPreconnectOrigin[];
+}
+
+export interface HttpAuthOptions {
+  /**
+   * URL prefixes the token is sent to, e.g. `https://api.example.com/v1`. A request gets it when
+   * its scheme, host and port match a prefix and its path is the prefix's or below it, e.g.
+   * `https://api.example.com/v1/users` but not `https://api.example.com/v10`. Other requests
+   * never get it.
+   */
+  urls: string[];
+  /**
+   * The current access token, if any
+   */
+  token?: string;
+  /**
+   * Header carrying the token. Defaults to `Authorization`
+   */
+  header?: string;
+  /**
+   * Prefix of the header value, or an empty string for the bare token. Defaults to `Bearer`
+   */
+  scheme?: string;
+  /**
+   * Request that returns a new token, POST unless it sets a method. Without it a 401 is
+   * returned as is.
+   */
+  refresh?: HttpOptions;
+  /**
+   * Dotted path of the token in the JSON response of `refresh`. Defaults to `access_token`
+   */
+  tokenPath?: string;
+}
+
+export interface HttpTokenRefresh {
+  success: boolean;
+  /**
+   * The new token, to persist it for the next launch
+   */
+  token?: string;
+  /**
+   * Status of a refresh response without a token
+   */
+  status?: number;
+  error?: string;
+}
+
+export type HttpTokenRefreshListener = (result: HttpTokenRefresh) => void;
+
+export interface HttpRetryPolicy {
+  /**
+   * Total number of attempts, including the first. Defaults to 3
+   */
+  maxAttempts?: number;
+  /**
+   * Delay before the first retry, in milliseconds. Defaults to 1000
+   */
+  initialDelay?: number;
+  /**
+   * Upper bound of the delay between attempts, in milliseconds. Defaults to 30000.
+   * A Retry-After longer than this ends the retries.
+   */
+  maxDelay?: number;
+  /**
+   * Factor applied to the delay after each attempt. Defaults to 2
+   */
+  backoffMultiplier?: number;
+  /**
+   * Fraction (0-1) of the delay that is randomly removed, to spread out retries. Defaults to 0.5
+   */
+  jitter?: number;
+  /**
+   * Response statuses to retry. Defaults to [408, 429, 500, 502, 503, 504]
+   */
+  retryOnStatus?: number[];
+  /**
+   * Retry connection resets, timeouts and DNS failures. Defaults to true
+   */
+  retryOnNetworkError?: boolean;
+  /**
+   * Wait at least as long as the server's Retry-After header asks. Defaults to true
+   */
+  respectRetryAfter?: boolean;
+}
+
+export interface HttpUploadRetryOptions {
+  /**
+   * Android only. Retries the upload natively on transient failures, re-sending the already
+   * processed file.
+   */
+  retry?: HttpRetryPolicy;
+  /**
+   * Value of the idempotency key header, the same for every attempt. Defaults to the upload
+   * `id` when `retry` is set. For 'separate' variants, `:<name>` is appended per variant.
+   */
+  idempotencyKey?: string;
+  /**
+   * Name of the idempotency key header. Defaults to Idempotency-Key
+   */
+  idempotencyKeyHeader?: string;
 }
 
 export interface HttpParams {
@@ -77,6 +405,45 @@ export interface HttpResponse {
   status: number;
   headers: HttpHeaders;
   url: string;
+  /**
+   * Only present when the `timings` option is set
+   */
+  timings?: HttpTimings;
+}
+
+/**
+ * Durations in milliseconds, measured with a monotonic clock
+ */
+export interface HttpTimings {
+  /**
+   * Time spent waiting for a free native thread, or for a slot in a batch
+   */
+  queueWait: number;
+  /**
+   * DNS lookup, TCP and TLS handshakes, and writing the request body
+   */
+  connect: number;
+  /**
+   * From the request being sent until the response headers are received, mostly server time
+   */
+  timeToFirstByte: number;
+  /**
+   * Downloading the response body. JSON is parsed as it downloads, so this includes parsing it
+   */
+  bodyRead: number;
+  /**
+   * Converting the body to the returned `data` once downloaded, e.g. base64 encoding
+   */
+  parse: number;
+  /**
+   * Serializing the response for the bridge
+   */
+  serialize: number;
+  total: number;
+  /**
+   * Length in characters of the response as sent over the bridge, excluding `timings`
+   */
+  bridgeSize: number;
 }
 
 export interface HttpDownloadFileOptions extends HttpOptions {
@@ -98,7 +465,7 @@ export interface HttpDownloadFileOptions extends HttpOptions {
   progress?: Boolean;
 }
 
-export interface HttpUploadFileOptions extends HttpOptions {
+export interface HttpUploadFileOptions extends HttpOptions, HttpUploadRetryOptions {
   /**
    * The URL to upload the file to
    */
@@ -123,7 +490,7 @@ export interface HttpUploadFileOptions extends HttpOptions {
   fileDirectory?: Directory;
 }
 
-export interface HttpUploadImageOptions extends HttpOptions {
+export interface HttpUploadImageOptions extends HttpOptions, HttpUploadRetryOptions {
   /**
    * The URL to upload the file to
    */
@@ -151,9 +518,38 @@ export interface HttpUploadImageOptions extends HttpOptions {
     maxWidth?: number;
     maxHeight?: number;
     quality?: number; // 0-100
-    format?: 'jpg' | 'png'; // Default jpg
+    /**
+     * Output format of the re-encoded image. Defaults to jpg.
+     *
+     * 'webp', 'webp-lossless' and 'heic' are Android only. 'heic' requires a hardware
+     * HEVC encoder (Android 9+) and falls back to jpg when it is unavailable.
+     * 'webp-lossless' ignores quality, and is written as png before Android 10, which cannot
+     * encode WebP losslessly. Other formats reject the upload.
+     */
+    format?: 'jpg' | 'png' | 'webp' | 'webp-lossless' | 'heic';
+    /**
+     * Android only. Remove EXIF/XMP metadata (GPS, camera details, thumbnails, comments)
+     * from JPEG images that are uploaded without being resized. The orientation is
+     * preserved. Resized images never carry metadata; their orientation is applied to
+     * the pixels.
+     */
+    stripMetadata?: boolean;
   };
 
+  /**
+   * Android only. Optionally, several resized versions of the image (e.g. full size and
+   * thumbnail) to produce from a single decode and upload together. When set, `resize`
+   * is ignored.
+   */
+  variants?: HttpUploadImageVariant[];
+
+  /**
+   * How variants are sent. 'multipart' (the default) uploads every variant as a file part of
+   * a single request, with metadata fields named `<name>[<header>]`. 'separate' sends one
+   * request per variant.
+   */
+  variantsMode?: 'multipart' | 'separate';
+
   /**
    * Optionally, the application-provided ID of the file being uploaded. Primarily used for debug logging
    */
@@ -175,6 +571,40 @@ export interface HttpUploadImageOptions extends HttpOptions {
   sizeHeader?: string;
 }
 
+export interface HttpUploadImagesOptions extends Partial<HttpUploadImageOptions> {
+  /**
+   * The images to upload. Options set at the top level apply to every upload unless the
+   * entry overrides them.
+   */
+  uploads: (Partial<HttpUploadImageOptions> & Pick<HttpUploadImageOptions, 'filePath'>)[];
+  /**
+   * Optionally, an ID for the batch, included in every 'uploadComplete' event. Defaults to a random UUID
+   */
+  batchId?: string;
+}
+
+export interface HttpUploadImageVariant {
+  /**
+   * The field name to upload this variant with, unique among the variants. Defaults to the
+   * upload's `name`, suffixed with the variant's index when several variants have no name,
+   * e.g. `file_0`
+   */
+  name?: string;
+  maxWidth?: number;
+  maxHeight?: number;
+  quality?: number; // 0-100
+  format?: 'jpg' | 'png' | 'webp' | 'webp-lossless' | 'heic'; // Default jpg
+  stripMetadata?: boolean;
+  /**
+   * With `variantsMode: 'separate'`, the URL to upload this variant to. Defaults to the upload's `url`
+   */
+  url?: string;
+  /**
+   * With `variantsMode: 'separate'`, form fields that override the upload's `data` for this variant
+   */
+  data?: { [key: string]: string | string[] };
+}
+
 export interface HttpCookie {
   key: string;
   value: string;
@@ -207,6 +637,16 @@ export interface HttpMultiCookiesOptions {
   url: string;
 }
 
+export interface HttpSetCookiesOptions {
+  url: string;
+  cookies: HttpCookie[];
+}
+
+export interface HttpDeleteCookiesOptions {
+  url: string;
+  keys: string[];
+}
+
 export interface HttpCookieExtraOptions {
   path?: string;
   expires?: string;
@@ -224,6 +664,165 @@ export interface HttpDownloadFileResult {
 
 export interface HttpUploadFileResult extends HttpResponse {}
 
+export interface HttpUploadImageVariantResult {
+  name: string;
+  width: number;
+  height: number;
+  fileSize: number;
+  /**
+   * With `variantsMode: 'separate'`, the response of the request that uploaded this variant
+   */
+  response?: HttpResponse;
+}
+
+export interface HttpUploadImageResult extends HttpUploadFileResult {
+  /**
+   * Present when the upload had variants. With `variantsMode: 'separate'` the top-level
+   * response fields are those of the first variant's request that failed, or of the first
+   * variant's request when all succeeded.
+   */
+  variants?: HttpUploadImageVariantResult[];
+}
+
+export interface HttpUploadBatchItemResult {
+  /**
+   * Position of the upload in the `uploads` array
+   */
+  index: number;
+  id: string;
+  /**
+   * True when the upload completed with a 2xx status
+   */
+  success: boolean;
+  status?: number;
+  error?: string;
+  code?: string;
+}
+
+export interface HttpUploadImagesResult {
+  batchId: string;
+  total: number;
+  succeeded: number;
+  failed: number;
+  results: HttpUploadBatchItemResult[];
+}
+
+export interface HttpBatchItemResult {
+  /**
+   * Position of the request in the `requests` array
+   */
+  index: number;
+  /**
+   * False when the request could not be completed, e.g. a network error. HTTP error statuses
+   * are successful requests; check `response.status`.
+   */
+  success: boolean;
+  response?: HttpResponse;
+  error?: string;
+  code?: string;
+}
+
+export interface HttpBatchResult {
+  batchId: string;
+  total: number;
+  succeeded: number;
+  failed: number;
+  /**
+   * Results in the order of the `requests` array. Omitted when `stream` is set.
+   */
+  results?: HttpBatchItemResult[];
+}
+
+export interface HttpBatchResponseEvent extends HttpBatchItemResult {
+  batchId: string;
+}
+
+export type HttpBatchResponseListener = (event: HttpBatchResponseEvent) => void;
+
+export interface HttpUploadCompleteEvent extends HttpUploadBatchItemResult {
+  batchId: string;
+  /**
+   * The server response, when the request completed
+   */
+  response?: HttpUploadImageResult;
+}
+
+export type HttpUploadCompleteListener = (event: HttpUploadCompleteEvent) => void;
+
+/**
+ * Durations in milliseconds. Percentiles are estimated from fixed buckets (1, 2, 5, 10, 20,
+ * 50 ms and so on up to 60 s) and rounded up to the bucket's upper bound.
+ */
+export interface HttpLatencyStats {
+  count: number;
+  mean: number;
+  p50: number;
+  p90: number;
+  p99: number;
+  max: number;
+}
+
+export interface HttpQueueStats {
+  active: number;
+  queued: number;
+  completed: number;
+}
+
+export interface HttpMetrics {
+  /**
+   * Number of requests by response status class. `error` counts requests that got no
+   * response because of a network error, `cancelled` those cancelled or aborted at their
+   * deadline before they completed.
+   */
+  requests: {
+    '1xx': number;
+    '2xx': number;
+    '3xx': number;
+    '4xx': number;
+    '5xx': number;
+    error: number;
+    cancelled: number;
+    total: number;
+  };
+  /**
+   * Response body bytes received
+   */
+  bytesIn: number;
+  /**
+   * Request body bytes sent
+   */
+  bytesOut: number;
+  /**
+   * Request latency by host. Hosts beyond the first 50 are grouped under `other`.
+   */
+  hosts: { [host: string]: HttpLatencyStats };
+  /**
+   * Duration of each stage of image uploads: `resize`, `upload` and `total`
+   */
+  uploadStages: { [stage: string]: HttpLatencyStats };
+  /**
+   * TLS handshakes of HTTPS connections, either full or resuming a cached session
+   */
+  tls: {
+    fullHandshakes: number;
+    resumedHandshakes: number;
+  };
+  /**
+   * Requests sent with `hedge`: how many could be hedged, were sent twice, were answered first
+   * by the second attempt, and were not sent twice because the hedge budget was spent
+   */
+  hedging: {
+    eligible: number;
+    hedged: number;
+    hedgeWins: number;
+    denied: number;
+  };
+  queues: {
+    requests: HttpQueueStats;
+    uploads: HttpQueueStats;
+  };
+}
+
 export type ProgressType = 'DOWNLOAD' | 'UPLOAD';
 
 export interface ProgressStatus {
@@ -1,8 +1,12 @@
 import { WebPlugin } from '@capacitor/core';
 import * as Cookie from './cookie';
 import type {
+  HttpBatchItemResult,
+  HttpBatchOptions,
+  HttpBatchResult,
   HttpCookie,
   HttpCookieMap,
+  HttpDeleteCookiesOptions,
   HttpDownloadFileOptions,
   HttpDownloadFileResult,
   HttpGetCookiesResult,
@@ -10,6 +14,7 @@ import type {
   HttpOptions,
   HttpResponse,
   HttpSetCookieOptions,
+  HttpSetCookiesOptions,
   HttpSingleCookieOptions,
   HttpUploadFileOptions,
   HttpUploadFileResult,
@@ -64,6 +69,43 @@ export class HttpWeb extends WebPlugin {
   public del = async (options: HttpOptions): Promise<HttpResponse> =>
     Request.del(options);
 
+  /**
+   * Perform several Http requests, at most `concurrency` at a time
+   * @param options The requests, and options shared by all of them
+   */
+  public batch = async (options: HttpBatchOptions): Promise<HttpBatchResult> => {
+    const { requests, concurrency = 6, stream = false, ...defaults } = options;
+    const batchId = options.batchId || `${Date.now()}-${Math.random().toString(16).slice(2)}`;
+    delete (defaults as HttpBatchOptions).batchId;
+
+    const results: HttpBatchItemResult[] = new Array(requests.length);
+    let next = 0;
+    const worker = async () => {
+      while (next < requests.length) {
+        const index = next++;
+        let result: HttpBatchItemResult;
+        try {
+          const response = await Request.request({ ...defaults, ...requests[index] });
+          result = { index, success: true, response };
+        } catch (e: any) {
+          result = { index, success: false, error: e?.message ?? String(e), code: e?.name };
+        }
+        if (stream) this.notifyListeners('batchResponse', { ...result, batchId });
+        results[index] = result;
+      }
+    };
+    await Promise.all(Array.from({ length: Math.max(1, Math.min(concurrency, requests.length)) }, worker));
+
+    const succeeded = results.filter(result => result.success).length;
+    return {
+      batchId,
+      total: requests.length,
+      succeeded,
+      failed: requests.length - succeeded,
+      results: stream ? undefined : results,
+    };
+  };
+
   /**
    * Gets all HttpCookies as a Map
    */
@@ -105,6 +147,14 @@ export class HttpWeb extends WebPlugin {
     Cookie.setCookie(key, value, { expires, path });
   };
 
+  /**
+   * Sets several cookies at once
+   * @param cookies The keys and values to set
+   */
+  public setCookies = async (options: HttpSetCookiesOptions): Promise<void> => {
+    options.cookies.forEach(({ key, value }) => Cookie.setCookie(key, value));
+  };
+
   /**
    * Gets all cookie values unless a key is specified, then return only that value
    * @param key The key of the cookie value to get
@@ -121,6 +171,14 @@ export class HttpWeb extends WebPlugin {
     options: HttpSingleCookieOptions,
   ): Promise<void> => Cookie.deleteCookie(options.key);
 
+  /**
+   * Deletes several cookies given their keys
+   * @param keys The keys of the cookies to delete
+   */
+  public deleteCookies = async (
+    options: HttpDeleteCookiesOptions,
+  ): Promise<void> => options.keys.forEach(key => Cookie.deleteCookie(key));
+
   /**
    * Clears out cookies by setting them to expire immediately
    */